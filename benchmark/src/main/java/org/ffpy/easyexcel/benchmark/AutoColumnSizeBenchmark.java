@@ -0,0 +1,50 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.Sheets;
+import org.ffpy.easyexcel.WorkbookType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * autoColumnSize()的性能测试
+ * <p>通过Sheets写入的Sheet在写入时记录列宽，调整列宽时不需要再扫描单元格
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoColumnSizeBenchmark {
+    @Param({"1000", "10000"})
+    private int rows;
+
+    @Param({"HSSF", "XSSF"})
+    private WorkbookType type;
+
+    private Sheets sheets;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        sheets = Excels.createWorkbook(type).createSheet()
+                .values(DataGenerator.strings(rows, 6));
+    }
+
+    @Benchmark
+    public Sheets autoColumnSize() {
+        return sheets.autoColumnSize();
+    }
+}
@@ -0,0 +1,98 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.ffpy.easyexcel.CellStyleBuilder;
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.WorkbookType;
+import org.ffpy.easyexcel.Workbooks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CellStyleBuilder.build()的性能测试
+ * <p>build()对同一个工作簿中属性相同的建造者只创建一次样式，因此创建的开销使用1000个属性各不相同的建造者测试，
+ * 工作簿的样式数有上限，每轮使用新的工作簿，每轮固定调用1000次，每次都创建新的样式；
+ * 同时测试重复build()同一个建造者和通过工作簿的样式池查找已有样式的开销作为对照
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CellStyleBuilderBenchmark {
+    private static final CellStyleBuilder STYLE = CellStyleBuilder.of()
+            .alignment(HorizontalAlignment.CENTER)
+            .color(IndexedColors.RED.getIndex())
+            .bold(true)
+            .dateFormat("yyyy-MM-dd");
+    /** 每轮调用的次数 */
+    private static final int BATCH_SIZE = 1000;
+    /** 属性各不相同的建造者，颜色、对齐方式和粗体的组合 */
+    private static final CellStyleBuilder[] DISTINCT_STYLES = new CellStyleBuilder[BATCH_SIZE];
+
+    static {
+        HorizontalAlignment[] alignments = HorizontalAlignment.values();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            DISTINCT_STYLES[i] = CellStyleBuilder.of()
+                    .color((short) (8 + i % 64))
+                    .alignment(alignments[i / 64 % alignments.length])
+                    .bold(i / 64 / alignments.length % 2 == 1);
+        }
+    }
+
+    private XSSFWorkbook workbook;
+    private Workbooks workbooks;
+    /** 下一个使用的建造者 */
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        workbook = new XSSFWorkbook();
+        workbooks = Excels.createWorkbook(WorkbookType.XSSF);
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        workbook.close();
+        workbooks.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 10, batchSize = BATCH_SIZE)
+    public CellStyle build() {
+        return DISTINCT_STYLES[next++].build(workbook);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public CellStyle rebuild() {
+        return STYLE.build(workbook);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public CellStyle pooled() {
+        return workbooks.getCellStyle(STYLE);
+    }
+}
@@ -0,0 +1,128 @@
+package org.ffpy.easyexcel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成测试数据的生成器
+ * <p>使用固定的随机种子，每次生成的数据都相同。学号、姓名各不相同，
+ * 课程只有少数几个取值，与实际导出中大量重复的状态、地区等列相似
+ */
+public final class DataGenerator {
+    /** 随机种子 */
+    private static final long SEED = 0x5EEDL;
+    /** 课程 */
+    private static final String[] COURSES = {"数学", "语文", "英语", "物理", "化学", "生物", "历史", "地理"};
+    /** 2018-01-01 00:00:00（UTC） */
+    private static final long START_MILLIS = 1514764800000L;
+
+    private DataGenerator() {
+    }
+
+    /**
+     * 生成成绩记录
+     *
+     * @param count 记录数
+     * @return 成绩记录
+     */
+    public static List<Record> records(int count) {
+        Random random = new Random(SEED);
+        List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new Record(
+                    String.format("%07d", i),
+                    "姓名" + i,
+                    COURSES[random.nextInt(COURSES.length)],
+                    Math.round(random.nextDouble() * 1000) / 10.0,
+                    new Date(START_MILLIS + random.nextInt(365) * 86400000L)));
+        }
+        return records;
+    }
+
+    /**
+     * 生成字符串表格
+     *
+     * @param rows    行数
+     * @param columns 列数
+     * @return 表格
+     */
+    public static String[][] strings(int rows, int columns) {
+        Random random = new Random(SEED);
+        String[][] table = new String[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                table[r][c] = Integer.toString(random.nextInt(1 << (c * 3 + 3)));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 成绩记录
+     */
+    public static class Record {
+        /** 学号 */
+        private String no;
+        /** 姓名 */
+        private String name;
+        /** 课程 */
+        private String course;
+        /** 成绩 */
+        private double score;
+        /** 考试时间 */
+        private Date examTime;
+
+        public Record() {
+        }
+
+        public Record(String no, String name, String course, double score, Date examTime) {
+            this.no = no;
+            this.name = name;
+            this.course = course;
+            this.score = score;
+            this.examTime = examTime;
+        }
+
+        public String getNo() {
+            return no;
+        }
+
+        public void setNo(String no) {
+            this.no = no;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getCourse() {
+            return course;
+        }
+
+        public void setCourse(String course) {
+            this.course = course;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public void setScore(double score) {
+            this.score = score;
+        }
+
+        public Date getExamTime() {
+            return examTime;
+        }
+
+        public void setExamTime(Date examTime) {
+            this.examTime = examTime;
+        }
+    }
+}
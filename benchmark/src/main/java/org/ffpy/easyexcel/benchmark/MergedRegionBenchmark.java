@@ -0,0 +1,60 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.Sheets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * nextCell()跳过合并单元格的性能测试
+ * <p>在第一列添加不同数量的纵向合并区域，统计写满固定行列数时每个单元格的平均耗时，
+ * 耗时应与合并区域的数量无关
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergedRegionBenchmark {
+    private static final int ROWS = 20000;
+    private static final int COLUMNS = 10;
+
+    @Param({"0", "100", "10000"})
+    private int mergedRegions;
+
+    private Sheets sheets;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        sheets = Excels.createWorkbook().createSheet();
+        for (int i = 0; i < mergedRegions; i++) {
+            sheets.mergedRegion(i * 2, i * 2 + 1, 0, 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * COLUMNS)
+    public Sheets nextCell() {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS; c++) {
+                sheets.nextCell();
+            }
+            sheets.nextRow();
+        }
+        return sheets;
+    }
+}
@@ -0,0 +1,98 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.ffpy.easyexcel.CellStyleBuilder;
+import org.ffpy.easyexcel.ExcelHelper;
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.ReportTemplate;
+import org.ffpy.easyexcel.WorkbookType;
+import org.ffpy.easyexcel.Workbooks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportTemplate.newWorkbooks()的性能测试
+ * <p>对照每次重新生成标题、表头和样式的开销，两者都只生成固定内容，不写入表身。
+ * 重新生成时同样合并标题并按表头调整列宽，与模板中保存的内容一致。
+ * 关闭工作簿的开销与生成方式无关，在每次调用之后关闭，不计入结果
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportTemplateBenchmark {
+    private static final CellStyleBuilder CENTER = CellStyleBuilder.of()
+            .alignment(HorizontalAlignment.CENTER)
+            .dateFormat("yyyy-MM-dd");
+    private static final CellStyleBuilder CENTER_BOLD = CellStyleBuilder.of(CENTER).bold(true);
+
+    @Param({"HSSF", "XSSF", "SXSSF"})
+    private WorkbookType type;
+
+    /** 表头的列数 */
+    @Param({"10", "100"})
+    private int columns;
+
+    private String[] headers;
+    private ReportTemplate template;
+    /** 本次调用生成的工作簿 */
+    private Workbooks workbooks;
+
+    @Setup
+    public void setup() {
+        headers = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            headers[i] = "表头" + i;
+        }
+        template = ReportTemplate.of(type, this::skeleton);
+    }
+
+    /**
+     * 固定内容：标题、表头和表身的样式
+     *
+     * @param helper Excel表格辅助者
+     */
+    private void skeleton(ExcelHelper helper) {
+        helper.title(CENTER_BOLD, "成绩表")
+                .header(CENTER_BOLD, headers);
+        helper.getWorkbook().getCellStyle(CENTER);
+        helper.getWorkbook().getCellStyle(CENTER.dateFormat(null));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        workbooks.close();
+    }
+
+    @Benchmark
+    public Workbooks template() {
+        return workbooks = template.newWorkbooks();
+    }
+
+    @Benchmark
+    public Workbooks rebuild() {
+        workbooks = Excels.createWorkbook(type);
+        ExcelHelper helper = Excels.helper(workbooks);
+        skeleton(helper);
+        helper.getSheet()
+                .mergedRegion(0, 0, 0, columns - 1)
+                .autoColumnSize();
+        return workbooks;
+    }
+}
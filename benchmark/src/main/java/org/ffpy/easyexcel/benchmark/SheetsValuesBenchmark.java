@@ -0,0 +1,48 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.Workbooks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheets.values(Iterable)按Bean写入的性能测试
+ * <p>100万行超出了.xls的行数上限，在内存中保存也需要很大的堆，因此使用流式工作簿
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SheetsValuesBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private List<DataGenerator.Record> records;
+
+    @Setup
+    public void setup() {
+        records = DataGenerator.records(rows);
+    }
+
+    @Benchmark
+    public int values() throws IOException {
+        try (Workbooks workbooks = Excels.createStreamingWorkbook(100)) {
+            return workbooks.createSheet().values(records).getCurRowIndex();
+        }
+    }
+}
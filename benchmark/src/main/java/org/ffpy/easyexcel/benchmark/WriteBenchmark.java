@@ -0,0 +1,105 @@
+package org.ffpy.easyexcel.benchmark;
+
+import org.ffpy.easyexcel.Excels;
+import org.ffpy.easyexcel.WorkbookType;
+import org.ffpy.easyexcel.Workbooks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workbooks.write(OutputStream)的性能测试
+ * <p>写入到丢弃所有数据的输出流，只统计序列化的开销。
+ * 流式工作簿只能写出一次，每次调用前重新生成，其它工作簿每轮生成一次后重复写出
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+    @Param({"HSSF", "XSSF"})
+    private WorkbookType type;
+
+    /** 行数 */
+    private static final int ROWS = 10000;
+
+    private Workbooks workbooks;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        workbooks = Excels.createWorkbook(type);
+        workbooks.createSheet().values(DataGenerator.records(ROWS));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        workbooks.close();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        NullOutputStream out = new NullOutputStream();
+        workbooks.write(out);
+        return out.count;
+    }
+
+    /**
+     * 流式工作簿的写出，包括生成数据的时间
+     */
+    @State(Scope.Thread)
+    public static class Streaming {
+        private Workbooks workbooks;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            workbooks = Excels.createWorkbook(WorkbookType.SXSSF);
+            workbooks.createSheet().values(DataGenerator.records(ROWS));
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            workbooks.close();
+        }
+    }
+
+    @Benchmark
+    public long writeStreaming(Streaming streaming) throws IOException {
+        NullOutputStream out = new NullOutputStream();
+        streaming.workbooks.write(out);
+        return out.count;
+    }
+
+    /**
+     * 丢弃所有数据的输出流，只统计字节数
+     */
+    private static class NullOutputStream extends OutputStream {
+        /** 写入的字节数 */
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
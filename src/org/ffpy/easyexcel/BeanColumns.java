@@ -0,0 +1,222 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bean的列计划，Excel和CSV的行写入共用
+ * <p>每一列的写入方式、转换器和数据格式在创建时按属性确定：为属性单独注册的转换器优先，
+ * 其次是直接写入的类型（int和long只在没有替换内置的转换器时直接写入），最后是属性类型的转换器
+ * <p>数据格式的优先级为：属性的数据格式（{@link Converters#format}）、转换器的数据格式
+ * <p>各列的值按列的顺序写入到{@link RowBinding.Cells}，Bean有编译时生成的{@link RowBinding}时由绑定直接调用getter取值，
+ * 单元格的具体写法由各自的{@link RowBinding.Cells}实现决定
+ */
+class BeanColumns {
+    /** 各列 */
+    private final Column[] columns;
+    /** 编译时生成的绑定，没有时为null */
+    private final RowBinding<Object> binding;
+
+    /**
+     * @param beanClass Bean类型
+     */
+    BeanColumns(Class<?> beanClass) {
+        BeanHelper beanHelper = BeanHelper.of(beanClass);
+        binding = beanHelper.getBinding();
+        List<PropertyHelper> properties = beanHelper.getOrderedProperties();
+        columns = new Column[properties.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(beanClass, properties.get(i));
+        }
+    }
+
+    /**
+     * 获取列数
+     *
+     * @return 列数
+     */
+    int size() {
+        return columns.length;
+    }
+
+    /**
+     * 获取列
+     *
+     * @param index 列的下标
+     * @return 列
+     */
+    Column get(int index) {
+        return columns[index];
+    }
+
+    /**
+     * 按列的顺序把Bean的各属性写入到单元格
+     *
+     * @param bean  Bean对象
+     * @param cells 单元格
+     */
+    void write(Object bean, RowBinding.Cells cells) {
+        if (binding != null) {
+            binding.write(bean, cells);
+            return;
+        }
+        for (Column column : columns) {
+            column.write(bean, cells);
+        }
+    }
+
+    /**
+     * 根据属性类型确定列的写入方式
+     *
+     * @param beanClass Bean类型
+     * @param property  属性
+     * @return 列
+     */
+    private static Column createColumn(Class<?> beanClass, PropertyHelper property) {
+        Class<?> type = property.getPropertyType();
+        String format = Converters.findFormat(beanClass, property);
+        Converter<Object> converter = Converters.findForProperty(beanClass, property);
+        if (converter != null) {
+            return new Column(property, Type.CONVERTER, converter, format);
+        } else if (type == String.class) {
+            return new Column(property, Type.STRING, null, format);
+        } else if (type == RichTextString.class) {
+            return new Column(property, Type.RICH_TEXT, null, format);
+        } else if (type == double.class) {
+            return new Column(property, Type.DOUBLE, null, format);
+        } else if (type == Date.class) {
+            return new Column(property, Type.DATE, null, format);
+        } else if (type == Calendar.class) {
+            return new Column(property, Type.CALENDAR, null, format);
+        } else if (type == boolean.class) {
+            return new Column(property, Type.BOOLEAN, null, format);
+        } else if (type == int.class && Converters.isBuiltIn(type)) {
+            return new Column(property, Type.INT, null, format);
+        } else if (type == long.class && Converters.isBuiltIn(type)) {
+            return new Column(property, Type.LONG, null, format);
+        } else if ((converter = Converters.find(beanClass, property)) != null) {
+            return new Column(property, Type.CONVERTER, converter, format);
+        } else {
+            throw new RuntimeException("不支持的字段类型：" + type.getName());
+        }
+    }
+
+    /**
+     * 列的写入方式
+     */
+    enum Type {
+        STRING, RICH_TEXT, DOUBLE, DATE, CALENDAR, BOOLEAN, INT, LONG,
+        /** 通过转换器转换后写入 */
+        CONVERTER
+    }
+
+    /**
+     * 列
+     */
+    static class Column {
+        /** 属性 */
+        final PropertyHelper property;
+        /** 写入方式 */
+        final Type type;
+        /** 转换器，不使用转换器时为null，有转换器时绑定直接写入的值也要经过转换器 */
+        final Converter<Object> converter;
+        /** 数据格式，为null时由样式决定 */
+        final String format;
+
+        Column(PropertyHelper property, Type type, @Nullable Converter<Object> converter, @Nullable String format) {
+            this.property = property;
+            this.type = type;
+            this.converter = converter;
+            this.format = format != null || converter == null ? format : converter.format();
+        }
+
+        /**
+         * 判断是否为日期列，日期列使用样式的日期格式
+         *
+         * @return true为日期列
+         */
+        boolean isDate() {
+            return type == Type.DATE || type == Type.CALENDAR;
+        }
+
+        /**
+         * 把属性的值转换为单元格的值
+         *
+         * @param value 属性的值
+         * @return 单元格的值，没有转换器时返回原值
+         */
+        @Nullable
+        Object toCell(@Nullable Object value) {
+            return value == null || converter == null ? value : converter.toCell(value);
+        }
+
+        /**
+         * 把绑定按基本类型写入的整数按属性类型装箱，交给转换器转换
+         *
+         * @param value 属性的值
+         * @return 装箱后的值
+         */
+        Object box(long value) {
+            Class<?> type = property.getPropertyType();
+            if (type == int.class) return (int) value;
+            if (type == short.class) return (short) value;
+            if (type == byte.class) return (byte) value;
+            if (type == char.class) return (char) value;
+            return value;
+        }
+
+        /**
+         * 把绑定按基本类型写入的小数按属性类型装箱，交给转换器转换
+         *
+         * @param value 属性的值
+         * @return 装箱后的值
+         */
+        Object box(double value) {
+            if (property.getPropertyType() == float.class) return (float) value;
+            return value;
+        }
+
+        /**
+         * 通过反射取得属性的值并写入到单元格
+         *
+         * @param bean  Bean对象
+         * @param cells 单元格
+         */
+        void write(Object bean, RowBinding.Cells cells) {
+            switch (type) {
+                case STRING:
+                    cells.value(property.<String>getProperty(bean));
+                    break;
+                case RICH_TEXT:
+                    cells.value(property.<RichTextString>getProperty(bean));
+                    break;
+                case DOUBLE:
+                    cells.value(property.getDouble(bean));
+                    break;
+                case DATE:
+                    cells.value(property.<Date>getProperty(bean));
+                    break;
+                case CALENDAR:
+                    cells.value(property.<Calendar>getProperty(bean));
+                    break;
+                case BOOLEAN:
+                    cells.value(property.getBoolean(bean));
+                    break;
+                case INT:
+                    cells.value(property.getInt(bean));
+                    break;
+                case LONG:
+                    cells.value(property.getLong(bean));
+                    break;
+                default:
+                    Object value = property.getProperty(bean);
+                    cells.value(value);
+                    break;
+            }
+        }
+    }
+}
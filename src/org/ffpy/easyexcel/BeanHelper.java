@@ -7,27 +7,48 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Bean的辅助类
+ * <p>每个Bean类型只解析一次，解析结果随类型一起缓存，类加载器卸载时缓存也随之释放。
+ * 实例不可变，可以在多个线程中共享
+ * <p>Bean有编译时生成的{@link RowBinding}时，各列的顺序、属性类型和注解取自生成的绑定，不再通过反射读取Bean，
+ * 只有按属性名读写时才读取属性
  */
 class BeanHelper {
+	/** BeanHelper缓存 */
+	private static final ClassValue<BeanHelper> CACHE = new ClassValue<BeanHelper>() {
+		@Override
+		protected BeanHelper computeValue(Class<?> type) {
+			return new BeanHelper(type);
+		}
+	};
+
 	/** Bean对象类型 */
 	private final Class<?> beanClass;
-	/** 属性描述符Map（属性名->属性描述符） */
-	private final Map<String, PropertyDescriptor> propertyDescriptorMap = new HashMap<>();
+	/** 属性Map（属性名->属性辅助对象），第一次使用时创建 */
+	private volatile Map<String, PropertyHelper> propertyMap;
+	/** 各属性的列定义（属性名->列定义） */
+	private final Map<String, RowBinding.Column> columns;
+	/** 编译时生成的绑定，没有时为null */
+	private final RowBinding<Object> binding;
+	/** 按照属性定义顺序排序的属性列表 */
+	private final List<PropertyHelper> orderedProperties;
 
 	/**
-	 * 创建一个BeanHelper实例
+	 * 获取Bean类型对应的BeanHelper实例
 	 *
 	 * @param beanClass Bean对象类型
 	 * @return BeanHelper实例
 	 */
 	public static BeanHelper of(Class<?> beanClass) {
-		return new BeanHelper(beanClass);
+		return CACHE.get(beanClass);
 	}
 
 	/**
@@ -35,7 +56,21 @@ class BeanHelper {
 	 */
 	private BeanHelper(Class<?> beanClass) {
 		this.beanClass = beanClass;
-		initPropertyDescriptorMap();
+		this.binding = loadBinding();
+		RowBinding.Column[] boundColumns = binding == null ? null : binding.columns();
+		if (boundColumns != null) {
+			Map<String, RowBinding.Column> map = new HashMap<>();
+			List<PropertyHelper> properties = new ArrayList<>(boundColumns.length);
+			for (RowBinding.Column column : boundColumns) {
+				map.put(column.getName(), column);
+				properties.add(PropertyHelper.of(column.getName(), column.getType()));
+			}
+			this.columns = Collections.unmodifiableMap(map);
+			this.orderedProperties = Collections.unmodifiableList(properties);
+		} else {
+			this.columns = Collections.unmodifiableMap(initColumns());
+			this.orderedProperties = Collections.unmodifiableList(initOrderedProperties());
+		}
 	}
 
 	/**
@@ -77,39 +112,188 @@ class BeanHelper {
 	 * @return 对应的属性辅助对象
 	 */
 	private PropertyHelper getPropertyDescriptor(String name) {
-		PropertyDescriptor property = propertyDescriptorMap.get(name);
+		PropertyHelper property = getPropertyMap().get(name);
 		if (property == null)
 			throw new IllegalArgumentException("不存在属性" + name);
-		return PropertyHelper.of(property);
+		return property;
 	}
 
 	/**
-	 * 获取Bean的所有属性，按照属性定义顺序排序
+	 * 获取Bean的所有属性，按照属性定义顺序排序，父类的属性排在前面
 	 *
-	 * @return 属性辅助对象列表
+	 * @return 属性辅助对象列表（不可修改）
 	 */
 	public List<PropertyHelper> getOrderedProperties() {
-		List<PropertyHelper> propertyHelperList = new ArrayList<>(propertyDescriptorMap.size());
-		for (Field field : beanClass.getDeclaredFields()) {
-			if (propertyDescriptorMap.containsKey(field.getName())) {
-				propertyHelperList.add(getPropertyDescriptor(field.getName()));
-			}
-		}
-		return propertyHelperList;
+		return orderedProperties;
+	}
+
+	/**
+	 * 获取属性的表头
+	 *
+	 * @param property 属性
+	 * @return 列注解中的表头，没有时返回属性名
+	 */
+	public String getHeader(PropertyHelper property) {
+		RowBinding.Column column = columns.get(property.getName());
+		return column == null || column.getHeader().isEmpty() ? property.getName() : column.getHeader();
+	}
+
+	/**
+	 * 获取属性的数据格式
+	 *
+	 * @param property 属性
+	 * @return 列注解中的数据格式，没有时返回null
+	 */
+	@Nullable
+	public String getFormat(PropertyHelper property) {
+		RowBinding.Column column = columns.get(property.getName());
+		return column == null || column.getFormat().isEmpty() ? null : column.getFormat();
+	}
+
+	/**
+	 * 获取属性的列宽
+	 *
+	 * @param property 属性
+	 * @return 列注解中的列宽（字符数），没有设置时返回-1
+	 */
+	public int getWidth(PropertyHelper property) {
+		RowBinding.Column column = columns.get(property.getName());
+		return column == null || column.getWidth() < 0 ? -1 : column.getWidth();
+	}
+
+	/**
+	 * 获取编译时生成的绑定
+	 *
+	 * @return 绑定，没有时返回null
+	 */
+	@Nullable
+	public RowBinding<Object> getBinding() {
+		return binding;
+	}
+
+	/**
+	 * 获取属性Map，第一次调用时通过反射读取
+	 *
+	 * @return 属性Map
+	 */
+	private Map<String, PropertyHelper> getPropertyMap() {
+		Map<String, PropertyHelper> map = propertyMap;
+		if (map == null)
+			propertyMap = map = Collections.unmodifiableMap(initPropertyMap());
+		return map;
 	}
 
 	/**
 	 * 初始化属性Map
+	 *
+	 * @return 属性Map
 	 */
-	private void initPropertyDescriptorMap() {
+	private Map<String, PropertyHelper> initPropertyMap() {
 		try {
 			PropertyDescriptor[] properties = Introspector.getBeanInfo(beanClass)
 				.getPropertyDescriptors();
+			Map<String, PropertyHelper> map = new HashMap<>(properties.length * 2);
 			for (PropertyDescriptor property : properties) {
-				propertyDescriptorMap.put(property.getName(), property);
+				map.put(property.getName(), PropertyHelper.of(property));
 			}
+			return map;
 		} catch (IntrospectionException e) {
 			throw new RuntimeException("读取Bean属性失败", e);
 		}
 	}
+
+	/**
+	 * 读取各属性的列注解
+	 *
+	 * @return 列定义Map
+	 */
+	private Map<String, RowBinding.Column> initColumns() {
+		Map<String, PropertyHelper> propertyMap = getPropertyMap();
+		Map<String, RowBinding.Column> map = new HashMap<>();
+		for (Class<?> c : getHierarchy()) {
+			for (Field field : c.getDeclaredFields()) {
+				ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+				PropertyHelper property = propertyMap.get(field.getName());
+				if (column != null && property != null) {
+					map.put(field.getName(), new RowBinding.Column(field.getName(), property.getPropertyType(),
+						column.header(), column.format(), column.width()));
+				}
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * 加载编译时生成的绑定
+	 * <p>绑定中有各列的定义，不需要先读取Bean的注解来判断，每个Bean类型只查找一次
+	 *
+	 * @return 绑定，没有时返回null
+	 */
+	@SuppressWarnings("unchecked")
+	private RowBinding<Object> loadBinding() {
+		Class<?> bindingClass;
+		try {
+			bindingClass = Class.forName(beanClass.getName().replace('$', '_') + RowBinding.SUFFIX,
+				true, beanClass.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+		try {
+			return (RowBinding<Object>) bindingClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("创建" + bindingClass.getName() + "失败", e);
+		}
+	}
+
+	/**
+	 * 按照字段定义顺序排列属性，从最顶层的父类开始。
+	 * 有列注解时只包含标记了注解的属性，按注解的顺序排序；有生成的绑定时按绑定的顺序排列
+	 *
+	 * @return 属性辅助对象列表
+	 */
+	private List<PropertyHelper> initOrderedProperties() {
+		if (binding != null) {
+			List<PropertyHelper> propertyHelperList = new ArrayList<>();
+			for (String name : binding.properties()) {
+				propertyHelperList.add(getPropertyDescriptor(name));
+			}
+			return propertyHelperList;
+		}
+
+		// 子类中同名的字段不重复添加
+		Map<String, PropertyHelper> propertyMap = getPropertyMap();
+		Map<String, Integer> orders = new LinkedHashMap<>();
+		for (Class<?> c : getHierarchy()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (!propertyMap.containsKey(field.getName())) continue;
+				ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+				if (columns.isEmpty() || column != null && columns.containsKey(field.getName())) {
+					orders.putIfAbsent(field.getName(), column == null ? Integer.MAX_VALUE : column.order());
+				}
+			}
+		}
+
+		List<PropertyHelper> propertyHelperList = new ArrayList<>(orders.size());
+		for (String name : orders.keySet()) {
+			propertyHelperList.add(propertyMap.get(name));
+		}
+		// 稳定排序，order相同的保持字段定义顺序
+		if (!columns.isEmpty())
+			propertyHelperList.sort(Comparator.comparingInt(property -> orders.get(property.getName())));
+		return propertyHelperList;
+	}
+
+	/**
+	 * 获取Bean的继承链，从最顶层的父类开始
+	 *
+	 * @return 继承链
+	 */
+	private List<Class<?>> getHierarchy() {
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> c = beanClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			hierarchy.add(c);
+		}
+		Collections.reverse(hierarchy);
+		return hierarchy;
+	}
 }
@@ -0,0 +1,240 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.lang.reflect.Constructor;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bean的行读取计划
+ * <p>与{@link BeanRowWriter}相反，把一行的各列按属性顺序转换为Bean对象，
+ * 每一列的目标属性和转换方式在创建时就已经确定，创建后不再修改，可以被多个线程同时使用
+ * <p>Bean有编译时生成的{@link RowBinding}时，由绑定创建对象和调用setter
+ */
+class BeanRowReader<T> {
+    /** 日期转换为字符串的格式 */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    /** Bean的构造器，有绑定时为null */
+    private final Constructor<T> constructor;
+    /** 编译时生成的绑定，没有时为null */
+    private final RowBinding<Object> binding;
+    /** 各列的读取器，下标为列号，为null时忽略该列 */
+    private final Column[] columns;
+
+    /**
+     * @param beanClass Bean类型
+     * @param columnMap 各属性对应的列号，下标为属性序号，值为-1时不读取该属性
+     */
+    BeanRowReader(Class<T> beanClass, int[] columnMap) {
+        BeanHelper beanHelper = BeanHelper.of(beanClass);
+        binding = beanHelper.getBinding();
+        if (binding != null) {
+            constructor = null;
+        } else {
+            try {
+                constructor = beanClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(beanClass.getName() + "没有无参构造器", e);
+            }
+        }
+
+        List<PropertyHelper> properties = beanHelper.getOrderedProperties();
+        int columnCount = 0;
+        for (int column : columnMap) {
+            columnCount = Math.max(columnCount, column + 1);
+        }
+        columns = new Column[columnCount];
+        for (int i = 0; i < properties.size() && i < columnMap.length; i++) {
+            PropertyHelper property = properties.get(i);
+            // 富文本不能脱离工作簿创建，读取时忽略
+            if (columnMap[i] >= 0 && property.getPropertyType() != RichTextString.class)
+                columns[columnMap[i]] = createColumn(beanClass, property, i);
+        }
+    }
+
+    /**
+     * 把一行转换为Bean对象
+     *
+     * @param rowIndex 行号
+     * @param cells    各列的值
+     * @return Bean对象
+     */
+    public T read(int rowIndex, Object[] cells) {
+        T bean = newInstance();
+        int count = Math.min(columns.length, cells.length);
+        for (int i = 0; i < count; i++) {
+            Column column = columns[i];
+            Object value = cells[i];
+            if (column == null || value == null) continue;
+            try {
+                if (binding != null) {
+                    binding.set(bean, column.index, column.convert(value));
+                } else {
+                    column.property.setProperty(bean, column.convert(value));
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("第" + (rowIndex + 1) + "行第" + (i + 1) + "列读取失败："
+                        + value, e);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 判断是否需要读取某一列
+     *
+     * @param column 列号
+     * @return true为有属性对应该列
+     */
+    public boolean hasColumn(int column) {
+        return column < columns.length && columns[column] != null;
+    }
+
+    /**
+     * 创建Bean对象
+     *
+     * @return Bean对象
+     */
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        if (binding != null)
+            return (T) binding.newInstance();
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("创建" + constructor.getDeclaringClass().getName() + "失败", e);
+        }
+    }
+
+    /**
+     * 根据属性类型创建列读取器，属性的转换器优先于内置的转换方式
+     *
+     * @param beanClass Bean类型
+     * @param property  属性
+     * @param index     属性序号
+     * @return 列读取器
+     */
+    private static Column createColumn(Class<?> beanClass, PropertyHelper property, int index) {
+        Class<?> type = property.getPropertyType();
+        Converter<Object> converter = Converters.findForProperty(beanClass, property);
+        if (converter != null) {
+            return createColumn(property, index, converter);
+        } else if (type == String.class) {
+            return new Column(property, index) {
+                @Override
+                Object convert(Object value) {
+                    if (value instanceof Double) {
+                        double d = (Double) value;
+                        if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e15)
+                            return Long.toString((long) d);
+                        return value.toString();
+                    }
+                    if (value instanceof Date)
+                        return DATE_FORMAT.format(((Date) value).toInstant());
+                    return value.toString();
+                }
+            };
+        } else if (type == double.class) {
+            return new Column(property, index) {
+                @Override
+                Object convert(Object value) {
+                    if (value instanceof Double) return value;
+                    if (value instanceof Boolean) return (Boolean) value ? 1.0 : 0.0;
+                    if (value instanceof String) return Double.parseDouble(((String) value).trim());
+                    throw new RuntimeException("不能转换为数值");
+                }
+            };
+        } else if (type == boolean.class) {
+            return new Column(property, index) {
+                @Override
+                Object convert(Object value) {
+                    if (value instanceof Boolean) return value;
+                    if (value instanceof Double) return (Double) value != 0;
+                    if (value instanceof String) return Boolean.parseBoolean(((String) value).trim());
+                    throw new RuntimeException("不能转换为布尔值");
+                }
+            };
+        } else if (type == Date.class) {
+            return new Column(property, index) {
+                @Override
+                Object convert(Object value) {
+                    return toDate(value);
+                }
+            };
+        } else if (type == Calendar.class) {
+            return new Column(property, index) {
+                @Override
+                Object convert(Object value) {
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTime(toDate(value));
+                    return calendar;
+                }
+            };
+        } else if ((converter = Converters.find(beanClass, property)) != null) {
+            return createColumn(property, index, converter);
+        } else {
+            throw new RuntimeException("不支持的字段类型：" + type.getName());
+        }
+    }
+
+    /**
+     * 创建使用转换器的列读取器
+     *
+     * @param property  属性
+     * @param index     属性序号
+     * @param converter 转换器
+     * @return 列读取器
+     */
+    private static Column createColumn(PropertyHelper property, int index, Converter<Object> converter) {
+        return new Column(property, index) {
+            @Override
+            Object convert(Object value) {
+                return converter.fromCell(value);
+            }
+        };
+    }
+
+    /**
+     * 把单元格的值转换为日期，没有日期格式的数值按Excel的日期序数转换
+     *
+     * @param value 单元格的值
+     * @return 日期
+     */
+    static Date toDate(Object value) {
+        if (value instanceof Date) return (Date) value;
+        if (value instanceof Double && DateUtil.isValidExcelDate((Double) value))
+            return DateUtil.getJavaDate((Double) value);
+        throw new RuntimeException("不能转换为日期");
+    }
+
+    /**
+     * 列读取器
+     */
+    private static abstract class Column {
+        /** 属性 */
+        final PropertyHelper property;
+        /** 属性序号 */
+        final int index;
+
+        Column(PropertyHelper property, int index) {
+            this.property = property;
+            this.index = index;
+        }
+
+        /**
+         * 把单元格的值转换为属性的类型
+         *
+         * @param value 单元格的值，不为null
+         * @return 属性的值
+         */
+        abstract Object convert(Object value);
+    }
+}
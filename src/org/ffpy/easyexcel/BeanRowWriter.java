@@ -0,0 +1,155 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Bean的行写入计划
+ * <p>对于同一个Bean类型和样式，每一列的取值方式、转换器和单元格类型由{@link BeanColumns}确定，
+ * 样式在创建时就已经确定，写入每一行时只需要依次写入各列的值
+ * <p>数据格式的优先级为：属性的数据格式（{@link Converters#format}）、转换器的数据格式、样式的日期格式
+ */
+class BeanRowWriter {
+    /** 列计划 */
+    private final BeanColumns columns;
+    /** 各列的样式，为null时不设置样式 */
+    private final CellStyle[] styles;
+
+    /**
+     * @param workbooks 工作簿
+     * @param beanClass Bean类型
+     * @param style     样式，日期类型的列使用样式的日期格式，其它列去掉日期格式
+     */
+    BeanRowWriter(Workbooks workbooks, Class<?> beanClass, @Nullable CellStyleBuilder style) {
+        CellStyle cellStyle = null;
+        CellStyle dateStyle = null;
+        if (style != null) {
+            cellStyle = workbooks.getCellStyle(style.dateFormat(null));
+            dateStyle = workbooks.getCellStyle(style);
+        }
+
+        columns = new BeanColumns(beanClass);
+        styles = new CellStyle[columns.size()];
+        for (int i = 0; i < styles.length; i++) {
+            BeanColumns.Column column = columns.get(i);
+            if (column.format != null) {
+                styles[i] = workbooks.getCellStyle((style != null ? style : CellStyleBuilder.of())
+                        .dateFormat(column.format));
+            } else {
+                styles[i] = column.isDate() ? dateStyle : cellStyle;
+            }
+        }
+    }
+
+    /**
+     * 创建写入到Sheet的单元格，可以重复用于写入多行
+     * <p>单元格带有写入位置，同一个行写入计划可能被多个Sheet同时使用，每次写入多行时各自创建
+     *
+     * @param sheets Sheet
+     * @return 单元格
+     */
+    RowCells cells(Sheets sheets) {
+        return new RowCells(sheets);
+    }
+
+    /**
+     * 一行中的单元格，设置各列的样式，每写入一个值跳到下一列
+     * <p>列有转换器时，绑定直接写入的值也先经过转换器
+     */
+    class RowCells implements RowBinding.Cells {
+        /** Sheet */
+        private final Sheets sheets;
+        /** 下一个写入的列 */
+        private int index;
+
+        RowCells(Sheets sheets) {
+            this.sheets = sheets;
+        }
+
+        /**
+         * 写入一行，写入后跳到下一行
+         *
+         * @param bean Bean对象
+         */
+        void write(Object bean) {
+            index = 0;
+            columns.write(bean, this);
+            sheets.nextRow();
+        }
+
+        @Override
+        public void value(@Nullable String value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable RichTextString value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(double value) {
+            if (converted()) value(columns.get(index).box(value));
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(long value) {
+            if (converted()) value(columns.get(index).box(value));
+            else nextColumn().value((double) value).nextCell();
+        }
+
+        @Override
+        public void value(boolean value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Date value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Calendar value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Object value) {
+            BeanColumns.Column column = columns.get(index);
+            nextColumn();
+            Converters.writeCell(sheets, column.toCell(value));
+            sheets.nextCell();
+        }
+
+        /**
+         * 判断当前列是否有转换器
+         *
+         * @return true为有转换器
+         */
+        private boolean converted() {
+            return columns.get(index).converter != null;
+        }
+
+        /**
+         * 设置当前列的样式，并移到下一列
+         *
+         * @return Sheet
+         */
+        private Sheets nextColumn() {
+            CellStyle style = styles[index++];
+            if (style != null)
+                sheets.style(style);
+            return sheets;
+        }
+    }
+}
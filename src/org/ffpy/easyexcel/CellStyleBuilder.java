@@ -1,31 +1,45 @@
 package org.ffpy.easyexcel;
 
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.Objects;
 
 /**
  * 单元格样式建造者
+ * <p>实例不可变，每个设置方法都会返回一个新的实例，因此可以作为常量在多个工作簿和线程之间共享。
+ * 属性相同的实例相等，同一个工作簿中相等的实例只会创建一个样式，参考{@link Workbooks#getCellStyle}
  */
-public class CellStyleBuilder implements Cloneable {
+public final class CellStyleBuilder {
     /** 水平对齐 */
-    private HorizontalAlignment horizontalAlignment;
+    private final HorizontalAlignment horizontalAlignment;
     /** 垂直对齐 */
-    private VerticalAlignment verticalAlignment;
+    private final VerticalAlignment verticalAlignment;
     /** 字体颜色 */
-    private Short color;
+    private final Short color;
     /** 是否加粗 */
-    private Boolean bold;
+    private final Boolean bold;
     /** 是否斜体 */
-    private Boolean italic;
+    private final Boolean italic;
     /** 下划线样式 */
-    private Byte underline;
+    private final Byte underline;
     /** 日期格式 */
-    private String dateFormat;
-    /** 缓存build后的样式 */
-    private HSSFCellStyle cellStyle;
+    private final String dateFormat;
+    /** 缓存的哈希值 */
+    private int hash;
+
+    private CellStyleBuilder(HorizontalAlignment horizontalAlignment, VerticalAlignment verticalAlignment,
+                             Short color, Boolean bold, Boolean italic, Byte underline, String dateFormat) {
+        this.horizontalAlignment = horizontalAlignment;
+        this.verticalAlignment = verticalAlignment;
+        this.color = color;
+        this.bold = bold;
+        this.italic = italic;
+        this.underline = underline;
+        this.dateFormat = dateFormat;
+    }
 
     /**
      * 创建一个CellStyle实例
@@ -33,147 +47,179 @@ public class CellStyleBuilder implements Cloneable {
      * @return CellStyle实例
      */
     public static CellStyleBuilder of() {
-        return new CellStyleBuilder();
+        return new CellStyleBuilder(null, null, null, null, null, null, null);
     }
 
     /**
      * 复制一个CellStyle实例
+     * <p>实例不可变，因此直接返回源样式
      *
      * @param source 源样式
      * @return 复制的CellStyle实例
      */
     public static CellStyleBuilder of(CellStyleBuilder source) {
-        return source.clone().clearCache();
+        return source;
     }
 
     /**
      * 设置水平对齐方式
      *
      * @param alignment 水平对齐方式
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder alignment(HorizontalAlignment alignment) {
-        this.horizontalAlignment = alignment;
-        return this;
+        return new CellStyleBuilder(alignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置垂直对齐方式
      *
      * @param alignment 垂直对齐方式
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder verticalAlignment(VerticalAlignment alignment) {
-        this.verticalAlignment = alignment;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, alignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置粗体
      *
      * @param bold true为粗体，false为非粗体
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder bold(boolean bold) {
-        this.bold = bold;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置字体颜色
      *
      * @param color 字体颜色
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder color(short color) {
-        this.color = color;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置斜体
      *
      * @param italic true为斜体，false为非斜体
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder italic(boolean italic) {
-        this.italic = italic;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置下划线
      *
      * @param underline 下划线
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder underline(byte underline) {
-        this.underline = underline;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
      * 设置日期格式
      *
      * @param dateFormat 日期格式，如"yyyy-MM-dd"
-     * @return this
+     * @return 新的实例
      */
     public CellStyleBuilder dateFormat(String dateFormat) {
-        this.dateFormat = dateFormat;
-        return this;
+        return new CellStyleBuilder(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
     }
 
     /**
-     * 基于自身设置创建一个样式实例
+     * 获取日期格式
+     *
+     * @return 日期格式，没有设置则返回null
+     */
+    public String getDateFormat() {
+        return dateFormat;
+    }
+
+    /**
+     * 基于自身设置获取样式实例
+     * <p>同一个工作簿中属性相同的建造者只创建一个样式，与{@link Workbooks#getCellStyle}共用，
+     * 重复调用不会超出工作簿的样式数上限。已有{@link Workbooks}时应使用{@link Workbooks#getCellStyle}，查找更快
+     * <p>返回的样式是共用的，修改它会影响所有使用属性相同的建造者的单元格，
+     * 需要单独修改时应通过{@link Workbook#createCellStyle()}创建新样式并{@link CellStyle#cloneStyleFrom}复制
      *
      * @param workbook 工作簿
      * @return 样式实例
      */
-    public HSSFCellStyle build(HSSFWorkbook workbook) {
-        if (cellStyle == null) {
-            cellStyle = workbook.createCellStyle();
-            HSSFFont font = workbook.createFont();
-
-            if (horizontalAlignment != null)
-                cellStyle.setAlignment(horizontalAlignment);
-            if (verticalAlignment != null)
-                cellStyle.setVerticalAlignment(verticalAlignment);
-            if (bold != null)
-                font.setBold(bold);
-            if (color != null)
-                font.setColor(color);
-            if (italic != null)
-                font.setItalic(italic);
-            if (underline != null)
-                font.setUnderline(underline);
-            if (dateFormat != null) {
-                short format = workbook.createDataFormat().getFormat(dateFormat);
-                cellStyle.setDataFormat(format);
-            }
-
-            cellStyle.setFont(font);
-        }
-        return cellStyle;
+    public CellStyle build(Workbook workbook) {
+        return new CellStylePool(workbook).get(this);
     }
 
     /**
      * 清空缓存
      *
      * @return this
+     * @deprecated 样式由工作簿缓存，建造者不再持有样式
      */
+    @Deprecated
     public CellStyleBuilder clearCache() {
-        this.cellStyle = null;
         return this;
     }
 
+    HorizontalAlignment getHorizontalAlignment() {
+        return horizontalAlignment;
+    }
+
+    VerticalAlignment getVerticalAlignment() {
+        return verticalAlignment;
+    }
+
+    Short getColor() {
+        return color;
+    }
+
+    Boolean getBold() {
+        return bold;
+    }
+
+    Boolean getItalic() {
+        return italic;
+    }
+
+    Byte getUnderline() {
+        return underline;
+    }
+
+    /**
+     * 只保留字体相关属性，用作字体的缓存键
+     *
+     * @return 字体属性
+     */
+    CellStyleBuilder fontKey() {
+        return new CellStyleBuilder(null, null, color, bold, italic, underline, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CellStyleBuilder that = (CellStyleBuilder) o;
+        return horizontalAlignment == that.horizontalAlignment &&
+                verticalAlignment == that.verticalAlignment &&
+                Objects.equals(color, that.color) &&
+                Objects.equals(bold, that.bold) &&
+                Objects.equals(italic, that.italic) &&
+                Objects.equals(underline, that.underline) &&
+                Objects.equals(dateFormat, that.dateFormat);
+    }
+
     @Override
-    protected CellStyleBuilder clone() {
-        try {
-            return (CellStyleBuilder) super.clone();
-        } catch (CloneNotSupportedException e) {
-            e.printStackTrace();
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(horizontalAlignment, verticalAlignment, color, bold, italic, underline, dateFormat);
+            hash = h;
         }
-        return null;
+        return h;
     }
 
     @Override
@@ -186,7 +232,6 @@ public class CellStyleBuilder implements Cloneable {
                 ", italic=" + italic +
                 ", underline=" + underline +
                 ", dateFormat='" + dateFormat + '\'' +
-                ", cellStyle=" + cellStyle +
                 '}';
     }
 }
@@ -0,0 +1,192 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 工作簿的样式池
+ * <p>属性相同的{@link CellStyleBuilder}只创建一个样式，字体属性相同的样式共用一个字体。
+ * 同一个工作簿的所有样式池（包括{@link Workbooks}的样式池和{@link CellStyleBuilder#build}使用的样式池）
+ * 共用一份已创建的样式和字体的序号，不会重复创建
+ * <p>查找不加锁，创建样式和字体时锁住工作簿的序号表，可以在多个线程中使用
+ */
+class CellStylePool {
+    /**
+     * 各工作簿中已创建的样式和字体的序号
+     * <p>只保存序号，不引用工作簿，工作簿不再使用时可以被回收
+     */
+    private static final Map<Workbook, Indexes> INDEXES = new WeakHashMap<>();
+
+    /** 工作簿 */
+    private final Workbook workbook;
+    /** 工作簿中已创建的样式和字体的序号，创建样式和字体时锁住 */
+    private final Indexes indexes;
+    /** 样式缓存 */
+    private final Map<CellStyleBuilder, CellStyle> styles = new ConcurrentHashMap<>();
+    /** 字体缓存（只包含字体属性的样式建造者 -> 字体） */
+    private final Map<CellStyleBuilder, Font> fonts = new ConcurrentHashMap<>();
+    /** 数据格式表 */
+    private DataFormat dataFormat;
+
+    /**
+     * @param workbook 工作簿
+     */
+    CellStylePool(Workbook workbook) {
+        this.workbook = workbook;
+        synchronized (INDEXES) {
+            this.indexes = INDEXES.computeIfAbsent(workbook, key -> new Indexes());
+        }
+    }
+
+    /**
+     * 获取样式，不存在则创建
+     *
+     * @param builder 样式建造者
+     * @return 样式
+     */
+    public CellStyle get(CellStyleBuilder builder) {
+        CellStyle cellStyle = styles.get(builder);
+        if (cellStyle != null) return cellStyle;
+
+        synchronized (indexes) {
+            cellStyle = styles.get(builder);
+            if (cellStyle == null) {
+                // 其它样式池已经创建过的直接取出
+                Short index = indexes.styles.get(builder);
+                if (index != null) {
+                    cellStyle = workbook.getCellStyleAt(index);
+                } else {
+                    cellStyle = create(builder);
+                    indexes.styles.put(builder, cellStyle.getIndex());
+                }
+                styles.put(builder, cellStyle);
+            }
+            return cellStyle;
+        }
+    }
+
+    /**
+     * 获取已创建的样式数量
+     *
+     * @return 样式数量
+     */
+    public int size() {
+        return styles.size();
+    }
+
+    /**
+     * 获取已创建的样式在工作簿中的序号
+     *
+     * @return 样式建造者 -> 样式序号
+     */
+    Map<CellStyleBuilder, Short> styleIndexes() {
+        Map<CellStyleBuilder, Short> indexes = new HashMap<>();
+        for (Map.Entry<CellStyleBuilder, CellStyle> entry : styles.entrySet()) {
+            indexes.put(entry.getKey(), entry.getValue().getIndex());
+        }
+        return indexes;
+    }
+
+    /**
+     * 获取已创建的字体在工作簿中的序号
+     *
+     * @return 只包含字体属性的样式建造者 -> 字体序号
+     */
+    Map<CellStyleBuilder, Short> fontIndexes() {
+        Map<CellStyleBuilder, Short> indexes = new HashMap<>();
+        for (Map.Entry<CellStyleBuilder, Font> entry : fonts.entrySet()) {
+            indexes.put(entry.getKey(), entry.getValue().getIndex());
+        }
+        return indexes;
+    }
+
+    /**
+     * 登记工作簿中已有的样式和字体，之后获取属性相同的样式时不再创建
+     *
+     * @param styleIndexes 样式建造者 -> 样式序号
+     * @param fontIndexes  只包含字体属性的样式建造者 -> 字体序号
+     */
+    void preload(Map<CellStyleBuilder, Short> styleIndexes, Map<CellStyleBuilder, Short> fontIndexes) {
+        synchronized (indexes) {
+            for (Map.Entry<CellStyleBuilder, Short> entry : styleIndexes.entrySet()) {
+                styles.put(entry.getKey(), workbook.getCellStyleAt(entry.getValue()));
+            }
+            for (Map.Entry<CellStyleBuilder, Short> entry : fontIndexes.entrySet()) {
+                fonts.put(entry.getKey(), workbook.getFontAt(entry.getValue()));
+            }
+            indexes.styles.putAll(styleIndexes);
+            indexes.fonts.putAll(fontIndexes);
+        }
+    }
+
+    /**
+     * 创建样式
+     *
+     * @param builder 样式建造者
+     * @return 样式
+     */
+    private CellStyle create(CellStyleBuilder builder) {
+        CellStyle cellStyle = workbook.createCellStyle();
+
+        if (builder.getHorizontalAlignment() != null)
+            cellStyle.setAlignment(builder.getHorizontalAlignment());
+        if (builder.getVerticalAlignment() != null)
+            cellStyle.setVerticalAlignment(builder.getVerticalAlignment());
+        if (builder.getDateFormat() != null) {
+            if (dataFormat == null)
+                dataFormat = workbook.createDataFormat();
+            cellStyle.setDataFormat(dataFormat.getFormat(builder.getDateFormat()));
+        }
+        cellStyle.setFont(getFont(builder.fontKey()));
+
+        return cellStyle;
+    }
+
+    /**
+     * 获取字体，不存在则创建，调用时已锁住序号表
+     *
+     * @param fontKey 只包含字体属性的样式建造者
+     * @return 字体
+     */
+    private Font getFont(CellStyleBuilder fontKey) {
+        Font font = fonts.get(fontKey);
+        if (font != null) return font;
+
+        Short index = indexes.fonts.get(fontKey);
+        if (index != null) {
+            font = workbook.getFontAt(index);
+            fonts.put(fontKey, font);
+            return font;
+        }
+
+        font = workbook.createFont();
+        if (fontKey.getBold() != null)
+            font.setBold(fontKey.getBold());
+        if (fontKey.getColor() != null)
+            font.setColor(fontKey.getColor());
+        if (fontKey.getItalic() != null)
+            font.setItalic(fontKey.getItalic());
+        if (fontKey.getUnderline() != null)
+            font.setUnderline(fontKey.getUnderline());
+        fonts.put(fontKey, font);
+        indexes.fonts.put(fontKey, font.getIndex());
+        return font;
+    }
+
+    /**
+     * 一个工作簿中已创建的样式和字体的序号
+     */
+    private static class Indexes {
+        /** 样式建造者 -> 样式序号 */
+        final Map<CellStyleBuilder, Short> styles = new HashMap<>();
+        /** 只包含字体属性的样式建造者 -> 字体序号 */
+        final Map<CellStyleBuilder, Short> fonts = new HashMap<>();
+    }
+}
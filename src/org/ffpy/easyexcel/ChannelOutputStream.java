@@ -0,0 +1,83 @@
+package org.ffpy.easyexcel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 写入到通道的输出流
+ * <p>通过每个线程复用的直接缓冲区写入通道，避免先把整个输出保存在堆中，
+ * 同时统计写入的字节数。关闭时只刷新缓冲区，不关闭通道
+ */
+class ChannelOutputStream extends OutputStream {
+    /** 缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** 每个线程复用的直接缓冲区 */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    /** 通道 */
+    private final WritableByteChannel channel;
+    /** 缓冲区 */
+    private final ByteBuffer buffer;
+    /** 已写入的字节数 */
+    private long count;
+
+    /**
+     * @param channel 通道
+     */
+    ChannelOutputStream(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = BUFFERS.get();
+        buffer.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining())
+            flush();
+        buffer.put((byte) b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        count += len;
+        while (len > 0) {
+            if (!buffer.hasRemaining())
+                flush();
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * 获取已写入的字节数
+     *
+     * @return 字节数
+     */
+    public long getCount() {
+        return count;
+    }
+}
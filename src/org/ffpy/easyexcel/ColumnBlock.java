@@ -0,0 +1,253 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按列组织的基本类型数据块
+ * <p>每一列是一个基本类型数组，通过{@link Sheets#columns(ColumnBlock)}一次写入整块单元格，
+ * 写入时不装箱，不逐个单元格移动游标，每一列只查找一次样式。适合写入数值和时间序列等数据
+ *
+ * <pre>
+ * ColumnBlock block = ColumnBlock.of()
+ *         .dateColumn(dateStyle, times)
+ *         .column(prices)
+ *         .column(volumes);
+ * </pre>
+ */
+public final class ColumnBlock {
+    /** 列类型：double */
+    static final int DOUBLE = 0;
+    /** 列类型：float */
+    static final int FLOAT = 1;
+    /** 列类型：int */
+    static final int INT = 2;
+    /** 列类型：long */
+    static final int LONG = 3;
+    /** 列类型：boolean */
+    static final int BOOLEAN = 4;
+    /** 列类型：日期（毫秒时间戳） */
+    static final int DATE = 5;
+    /** 列类型：空列 */
+    static final int EMPTY = 6;
+
+    /** 各列的类型 */
+    private final List<Integer> types = new ArrayList<>();
+    /** 各列的数据 */
+    private final List<Object> data = new ArrayList<>();
+    /** 各列的样式 */
+    private final List<CellStyleBuilder> styles = new ArrayList<>();
+    /** 行数，-1表示还没有数据列 */
+    private int rowCount = -1;
+
+    private ColumnBlock() {
+    }
+
+    /**
+     * 创建一个数据块
+     *
+     * @return 数据块
+     */
+    public static ColumnBlock of() {
+        return new ColumnBlock();
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(double[] values) {
+        return column(null, values);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param style  样式
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(@Nullable CellStyleBuilder style, double[] values) {
+        return add(DOUBLE, style, values, values.length);
+    }
+
+    /**
+     * 添加一列，值按十进制表示转换为double，如0.1f写入0.1
+     *
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(float[] values) {
+        return column(null, values);
+    }
+
+    /**
+     * 添加一列，值按十进制表示转换为double，如0.1f写入0.1
+     *
+     * @param style  样式
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(@Nullable CellStyleBuilder style, float[] values) {
+        return add(FLOAT, style, values, values.length);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(int[] values) {
+        return column(null, values);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param style  样式
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(@Nullable CellStyleBuilder style, int[] values) {
+        return add(INT, style, values, values.length);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param values 值，超过2^53的值会损失精度
+     * @return this
+     */
+    public ColumnBlock column(long[] values) {
+        return column(null, values);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param style  样式
+     * @param values 值，超过2^53的值会损失精度
+     * @return this
+     */
+    public ColumnBlock column(@Nullable CellStyleBuilder style, long[] values) {
+        return add(LONG, style, values, values.length);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(boolean[] values) {
+        return column(null, values);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param style  样式
+     * @param values 值
+     * @return this
+     */
+    public ColumnBlock column(@Nullable CellStyleBuilder style, boolean[] values) {
+        return add(BOOLEAN, style, values, values.length);
+    }
+
+    /**
+     * 添加一列日期，按默认时区和工作簿的日期系统（1900或1904）转换为Excel的日期序数
+     *
+     * @param style       样式，必须设置日期格式
+     * @param epochMillis 毫秒时间戳
+     * @return this
+     */
+    public ColumnBlock dateColumn(CellStyleBuilder style, long[] epochMillis) {
+        if (style == null || style.getDateFormat() == null)
+            throw new IllegalArgumentException("日期列的样式必须设置日期格式");
+        return add(DATE, style, epochMillis, epochMillis.length);
+    }
+
+    /**
+     * 添加一个空列，写入时跳过
+     *
+     * @return this
+     */
+    public ColumnBlock skipColumn() {
+        types.add(EMPTY);
+        data.add(null);
+        styles.add(null);
+        return this;
+    }
+
+    /**
+     * 获取行数
+     *
+     * @return 行数
+     */
+    public int getRowCount() {
+        return Math.max(rowCount, 0);
+    }
+
+    /**
+     * 获取列数
+     *
+     * @return 列数
+     */
+    public int getColumnCount() {
+        return types.size();
+    }
+
+    /**
+     * 获取列的类型
+     *
+     * @param column 列序号
+     * @return 列类型
+     */
+    int typeAt(int column) {
+        return types.get(column);
+    }
+
+    /**
+     * 获取列的数据
+     *
+     * @param column 列序号
+     * @return 基本类型数组
+     */
+    Object dataAt(int column) {
+        return data.get(column);
+    }
+
+    /**
+     * 获取列的样式
+     *
+     * @param column 列序号
+     * @return 样式，为null时不设置样式
+     */
+    CellStyleBuilder styleAt(int column) {
+        return styles.get(column);
+    }
+
+    /**
+     * 添加一列
+     *
+     * @param type   列类型
+     * @param style  样式
+     * @param values 基本类型数组
+     * @param length 数组长度
+     * @return this
+     */
+    private ColumnBlock add(int type, @Nullable CellStyleBuilder style, Object values, int length) {
+        if (rowCount >= 0 && rowCount != length)
+            throw new IllegalArgumentException("各列的行数必须相同，应为" + rowCount + "，实际为" + length);
+        rowCount = length;
+        types.add(type);
+        data.add(values);
+        styles.add(style);
+        return this;
+    }
+}
@@ -0,0 +1,200 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.text.FieldPosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 列宽统计
+ * <p>记录每一列的最大显示宽度（以字符为单位，中文等全角字符算两个字符），
+ * 日期按照单元格样式的格式计算宽度，每种格式只创建一个格式化器。
+ * 非线程安全，每个Sheet使用一个实例
+ */
+class ColumnWidths {
+    /** Excel允许的最大列宽（字符） */
+    static final int MAX_WIDTH = 255;
+
+    /**
+     * 宽字符的码点区间（包括两端），区间内的字符显示宽度为2
+     * <p>包括韩文字母、中日韩符号和文字、韩文音节、兼容汉字、竖排和兼容形式、全角字符
+     */
+    private static final int[] WIDE_RANGES = {
+            0x1100, 0x115F,
+            0x2E80, 0x303E,
+            0x3041, 0x33FF,
+            0x3400, 0x4DBF,
+            0x4E00, 0x9FFF,
+            0xA000, 0xA4CF,
+            0xAC00, 0xD7A3,
+            0xF900, 0xFAFF,
+            0xFE30, 0xFE4F,
+            0xFF00, 0xFF60,
+            0xFFE0, 0xFFE6,
+            0x20000, 0x3FFFD,
+    };
+
+    /** 各列的最大宽度 */
+    private int[] widths = new int[16];
+    /** 日期格式化器缓存（格式 -> 格式化器，格式无法解析时为null） */
+    private final Map<String, SimpleDateFormat> dateFormats = new HashMap<>();
+    /** 最近使用的日期样式 */
+    private CellStyle lastDateStyle;
+    /** 最近使用的日期样式对应的格式化器 */
+    private SimpleDateFormat lastDateFormat;
+    /** 格式化日期的缓冲区 */
+    private final StringBuffer buffer = new StringBuffer();
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+
+    /**
+     * 获取列的最大宽度
+     *
+     * @param column 列号
+     * @return 最大宽度，没有记录时为0
+     */
+    public int get(int column) {
+        return column < widths.length ? widths[column] : 0;
+    }
+
+    /**
+     * 记录宽度
+     *
+     * @param column 列号
+     * @param width  宽度
+     */
+    public void update(int column, int width) {
+        if (column >= widths.length)
+            widths = Arrays.copyOf(widths, Math.max(widths.length * 2, column + 1));
+        if (widths[column] < width)
+            widths[column] = width;
+    }
+
+    /**
+     * 记录字符串的宽度
+     *
+     * @param column 列号
+     * @param value  字符串
+     */
+    public void updateString(int column, CharSequence value) {
+        if (value != null)
+            update(column, displayWidth(value));
+    }
+
+    /**
+     * 记录日期的宽度
+     *
+     * @param column 列号
+     * @param value  日期
+     * @param style  单元格样式
+     */
+    public void updateDate(int column, Date value, CellStyle style) {
+        if (value != null)
+            update(column, dateWidth(value, style));
+    }
+
+    /**
+     * 计算单元格的宽度，只计算字符串和日期，其它类型返回0
+     *
+     * @param cell 单元格
+     * @return 宽度
+     */
+    public int measure(Cell cell) {
+        switch (cell.getCellTypeEnum()) {
+            // 字符串
+            case STRING:
+                return displayWidth(cell.getStringCellValue());
+            // 日期
+            case NUMERIC:
+                if (DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+                    Date value = cell.getDateCellValue();
+                    if (value != null)
+                        return dateWidth(value, cell.getCellStyle());
+                }
+                return 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 计算日期按照样式格式化后的宽度
+     *
+     * @param value 日期
+     * @param style 单元格样式
+     * @return 宽度，样式没有日期格式时返回0
+     */
+    private int dateWidth(Date value, CellStyle style) {
+        if (style != lastDateStyle) {
+            lastDateFormat = getDateFormat(style.getDataFormatString());
+            lastDateStyle = style;
+        }
+        if (lastDateFormat == null) return 0;
+
+        buffer.setLength(0);
+        lastDateFormat.format(value, buffer, fieldPosition);
+        return displayWidth(buffer);
+    }
+
+    /**
+     * 获取格式对应的格式化器
+     *
+     * @param pattern 格式
+     * @return 格式化器，不是日期格式时返回null
+     */
+    private SimpleDateFormat getDateFormat(String pattern) {
+        if (pattern == null || pattern.isEmpty() || "General".equals(pattern))
+            return null;
+        if (dateFormats.containsKey(pattern))
+            return dateFormats.get(pattern);
+
+        SimpleDateFormat dateFormat;
+        try {
+            dateFormat = new SimpleDateFormat(pattern);
+        } catch (IllegalArgumentException e) {
+            dateFormat = null;
+        }
+        dateFormats.put(pattern, dateFormat);
+        return dateFormat;
+    }
+
+    /**
+     * 计算字符串的显示宽度，宽字符算两个字符
+     *
+     * @param value 字符串
+     * @return 显示宽度
+     */
+    static int displayWidth(CharSequence value) {
+        int width = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < WIDE_RANGES[0]) {
+                width++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length) {
+                width += charWidth(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                width += charWidth(c);
+            }
+        }
+        return width;
+    }
+
+    /**
+     * 获取字符的显示宽度
+     *
+     * @param codePoint 码点
+     * @return 显示宽度
+     */
+    private static int charWidth(int codePoint) {
+        for (int i = 0; i < WIDE_RANGES.length && codePoint >= WIDE_RANGES[i]; i += 2) {
+            if (codePoint <= WIDE_RANGES[i + 1]) return 2;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,39 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+
+/**
+ * 属性值与单元格值的转换器
+ * <p>单元格的值为String、Double（或其它Number）、Boolean、Date、Calendar或RichTextString
+ *
+ * @param <T> 属性类型
+ * @see Converters
+ */
+public interface Converter<T> {
+
+	/**
+	 * 把属性值转换为单元格的值，写入时使用
+	 *
+	 * @param value 属性值，不为null
+	 * @return 单元格的值
+	 */
+	Object toCell(T value);
+
+	/**
+	 * 把单元格的值转换为属性值，读取时使用
+	 *
+	 * @param cell 单元格的值，为String、Double、Boolean或Date，不为null
+	 * @return 属性值
+	 */
+	T fromCell(Object cell);
+
+	/**
+	 * 获取单元格的数据格式，如"#,##0.00"、"yyyy-MM-dd"
+	 *
+	 * @return 数据格式，为null时不设置数据格式
+	 */
+	@Nullable
+	default String format() {
+		return null;
+	}
+}
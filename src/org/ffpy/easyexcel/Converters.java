@@ -0,0 +1,304 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 转换器注册表
+ * <p>Bean的行写入和读取计划在创建时为每一列确定一次转换器和数据格式，写入和读取每一行时不再查找。
+ * 查找顺序为：指定属性的转换器、属性类型的转换器、枚举转换器。
+ * String、RichTextString、double、boolean、Date和Calendar由行计划直接处理，不经过转换器；
+ * int和long没有替换内置的转换器时写入也直接处理，替换后写入和读取都使用注册的转换器。
+ * 注册应在创建行计划之前完成，已创建的行计划不受之后的注册影响
+ */
+public final class Converters {
+	/** 属性类型的转换器 */
+	private static final Map<Class<?>, Converter<?>> TYPES = new ConcurrentHashMap<>();
+	/** 指定属性的转换器（[Bean类型, 属性名] -> 转换器） */
+	private static final Map<List<Object>, Converter<?>> PROPERTIES = new ConcurrentHashMap<>();
+	/** 指定属性的数据格式（[Bean类型, 属性名] -> 数据格式） */
+	private static final Map<List<Object>, String> FORMATS = new ConcurrentHashMap<>();
+	/** int的内置转换器 */
+	private static final Converter<Integer> INT = number(Number::intValue, Integer::valueOf);
+	/** long的内置转换器 */
+	private static final Converter<Long> LONG = number(Number::longValue, Long::valueOf);
+
+	static {
+		register(int.class, Integer.class, INT);
+		register(long.class, Long.class, LONG);
+		register(short.class, Short.class, number(Number::shortValue, Short::valueOf));
+		register(byte.class, Byte.class, number(Number::byteValue, Byte::valueOf));
+		register(float.class, Float.class, number(Number::floatValue, Float::valueOf));
+		register(Double.class, number(Number::doubleValue, Double::valueOf));
+		register(BigDecimal.class, number(d -> BigDecimal.valueOf(d.doubleValue()), BigDecimal::new));
+		register(BigInteger.class, number(d -> BigDecimal.valueOf(d.doubleValue()).toBigInteger(), BigInteger::new));
+		register(Boolean.class, new Converter<Boolean>() {
+			@Override
+			public Object toCell(Boolean value) {
+				return value;
+			}
+
+			@Override
+			public Boolean fromCell(Object cell) {
+				if (cell instanceof Boolean) return (Boolean) cell;
+				if (cell instanceof Number) return ((Number) cell).doubleValue() != 0;
+				return Boolean.parseBoolean(cell.toString().trim());
+			}
+		});
+		register(LocalDate.class, new Converter<LocalDate>() {
+			@Override
+			public Object toCell(LocalDate value) {
+				return Date.from(value.atStartOfDay(ZoneId.systemDefault()).toInstant());
+			}
+
+			@Override
+			public LocalDate fromCell(Object cell) {
+				if (cell instanceof String) return LocalDate.parse(((String) cell).trim());
+				return BeanRowReader.toDate(cell).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+			}
+
+			@Override
+			public String format() {
+				return "yyyy-MM-dd";
+			}
+		});
+		register(LocalDateTime.class, new Converter<LocalDateTime>() {
+			@Override
+			public Object toCell(LocalDateTime value) {
+				return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+			}
+
+			@Override
+			public LocalDateTime fromCell(Object cell) {
+				if (cell instanceof String) return LocalDateTime.parse(((String) cell).trim().replace(' ', 'T'));
+				return BeanRowReader.toDate(cell).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+			}
+
+			@Override
+			public String format() {
+				return "yyyy-MM-dd HH:mm:ss";
+			}
+		});
+	}
+
+	private Converters() {
+	}
+
+	/**
+	 * 注册属性类型的转换器，会替换已有的转换器
+	 *
+	 * @param type      属性类型
+	 * @param converter 转换器
+	 * @param <T>       属性类型
+	 */
+	public static <T> void register(Class<T> type, Converter<T> converter) {
+		TYPES.put(type, converter);
+	}
+
+	/**
+	 * 注册指定属性的转换器，优先于属性类型的转换器
+	 *
+	 * @param beanClass Bean类型，也作用于它的子类
+	 * @param property  属性名
+	 * @param converter 转换器
+	 */
+	public static void register(Class<?> beanClass, String property, Converter<?> converter) {
+		PROPERTIES.put(Arrays.<Object>asList(beanClass, property), converter);
+	}
+
+	/**
+	 * 设置指定属性的数据格式，如"#,##0.00"，优先于样式和转换器的数据格式
+	 *
+	 * @param beanClass Bean类型，也作用于它的子类
+	 * @param property  属性名
+	 * @param format    数据格式
+	 */
+	public static void format(Class<?> beanClass, String property, String format) {
+		FORMATS.put(Arrays.<Object>asList(beanClass, property), format);
+	}
+
+	/**
+	 * 创建枚举的转换器，按名称转换
+	 *
+	 * @param type 枚举类型
+	 * @param <E>  枚举类型
+	 * @return 转换器
+	 */
+	public static <E extends Enum<E>> Converter<E> enumConverter(Class<E> type) {
+		return new Converter<E>() {
+			@Override
+			public Object toCell(E value) {
+				return value.name();
+			}
+
+			@Override
+			public E fromCell(Object cell) {
+				return Enum.valueOf(type, cell.toString().trim());
+			}
+		};
+	}
+
+	/**
+	 * 查找属性的转换器
+	 *
+	 * @param beanClass Bean类型
+	 * @param property  属性
+	 * @return 转换器，没有时返回null
+	 */
+	@Nullable
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static Converter<Object> find(Class<?> beanClass, PropertyHelper property) {
+		Converter<?> converter = findProperty(PROPERTIES, beanClass, property.getName());
+		if (converter == null)
+			converter = TYPES.get(property.getPropertyType());
+		if (converter == null && property.getPropertyType().isEnum())
+			converter = enumConverter((Class) property.getPropertyType());
+		return (Converter<Object>) converter;
+	}
+
+	/**
+	 * 判断int或long是否仍使用内置的转换器，是则行计划可以直接写入，不经过转换器
+	 *
+	 * @param type 属性类型
+	 * @return true为int或long且没有替换内置的转换器
+	 */
+	static boolean isBuiltIn(Class<?> type) {
+		Converter<?> converter = TYPES.get(type);
+		return type == int.class ? converter == INT : type == long.class && converter == LONG;
+	}
+
+	/**
+	 * 查找指定属性的转换器，只查找为属性单独注册的转换器
+	 *
+	 * @param beanClass Bean类型
+	 * @param property  属性
+	 * @return 转换器，没有时返回null
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static Converter<Object> findForProperty(Class<?> beanClass, PropertyHelper property) {
+		return (Converter<Object>) findProperty(PROPERTIES, beanClass, property.getName());
+	}
+
+	/**
+	 * 查找属性的数据格式，通过{@link #format}设置的优先于{@link ExcelColumn#format()}
+	 *
+	 * @param beanClass Bean类型
+	 * @param property  属性
+	 * @return 数据格式，没有时返回null
+	 */
+	@Nullable
+	static String findFormat(Class<?> beanClass, PropertyHelper property) {
+		String format = findProperty(FORMATS, beanClass, property.getName());
+		return format != null ? format : BeanHelper.of(beanClass).getFormat(property);
+	}
+
+	/**
+	 * 把转换器得到的单元格的值写入到当前单元格
+	 *
+	 * @param sheets Sheet
+	 * @param cell   单元格的值，为null时不写入
+	 */
+	static void writeCell(Sheets sheets, @Nullable Object cell) {
+		if (cell == null) return;
+		if (cell instanceof String) {
+			sheets.value((String) cell);
+		} else if (cell instanceof Float) {
+			sheets.value(toDouble((Float) cell));
+		} else if (cell instanceof Number) {
+			sheets.value(((Number) cell).doubleValue());
+		} else if (cell instanceof Boolean) {
+			sheets.value((boolean) (Boolean) cell);
+		} else if (cell instanceof Date) {
+			sheets.value((Date) cell);
+		} else if (cell instanceof Calendar) {
+			sheets.value((Calendar) cell);
+		} else if (cell instanceof RichTextString) {
+			sheets.value((RichTextString) cell);
+		} else {
+			throw new RuntimeException("不支持的单元格值类型：" + cell.getClass().getName());
+		}
+	}
+
+	/**
+	 * 把float转换为十进制表示相同的double，如0.1f转换为0.1而不是0.10000000149011612
+	 *
+	 * @param value 值
+	 * @return 转换后的值
+	 */
+	static double toDouble(float value) {
+		// 整数和非有限值直接转换，不需要经过字符串
+		if (value == (long) value || Float.isNaN(value) || Float.isInfinite(value))
+			return value;
+		return Double.parseDouble(Float.toString(value));
+	}
+
+	/**
+	 * 沿着Bean的继承链查找指定属性的设置
+	 *
+	 * @param map       设置
+	 * @param beanClass Bean类型
+	 * @param property  属性名
+	 * @param <V>       设置的类型
+	 * @return 设置，没有时返回null
+	 */
+	private static <V> V findProperty(Map<List<Object>, V> map, Class<?> beanClass, String property) {
+		if (map.isEmpty()) return null;
+		for (Class<?> c = beanClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			V value = map.get(Arrays.<Object>asList(c, property));
+			if (value != null) return value;
+		}
+		return null;
+	}
+
+	/**
+	 * 为基本类型和包装类型注册同一个转换器
+	 *
+	 * @param primitive 基本类型
+	 * @param wrapper   包装类型
+	 * @param converter 转换器
+	 * @param <T>       包装类型
+	 */
+	private static <T> void register(Class<?> primitive, Class<T> wrapper, Converter<T> converter) {
+		TYPES.put(primitive, converter);
+		TYPES.put(wrapper, converter);
+	}
+
+	/**
+	 * 创建数值的转换器，数值原样写入，读取时数值和字符串分别转换
+	 *
+	 * @param fromNumber 从数值转换
+	 * @param fromString 从字符串转换
+	 * @param <T>        数值类型
+	 * @return 转换器
+	 */
+	private static <T extends Number> Converter<T> number(Function<Number, T> fromNumber, Function<String, T> fromString) {
+		return new Converter<T>() {
+			@Override
+			public Object toCell(T value) {
+				return value;
+			}
+
+			@Override
+			public T fromCell(Object cell) {
+				if (cell instanceof Number) return fromNumber.apply((Number) cell);
+				if (cell instanceof Boolean) return fromNumber.apply((Boolean) cell ? 1 : 0);
+				if (cell instanceof String) return fromString.apply(((String) cell).trim());
+				throw new RuntimeException("不能转换为数值");
+			}
+		};
+	}
+}
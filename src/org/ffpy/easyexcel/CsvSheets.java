@@ -0,0 +1,740 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.FieldPosition;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * CSV/TSV的写入辅助类
+ * <p>与{@link Sheets}的values(...)用法相同，Bean的各列与Excel共用{@link BeanColumns}，有生成的绑定时同样使用绑定取值，
+ * 样式中只使用日期格式。数据直接写入字符缓冲区，缓冲区满时再写入Writer，不为单元格创建对象
+ * <p>属性的数据格式只作用于日期，数值按原值写入
+ */
+public class CsvSheets implements Closeable, Flushable {
+    /** 默认的日期格式 */
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    /** 输出 */
+    private final Writer out;
+    /** 分隔符 */
+    private final char separator;
+    /** 字符缓冲区 */
+    private final char[] buf = new char[8192];
+    /** 缓冲区中的字符数 */
+    private int count;
+    /** 当前列号 */
+    private int curColIndex;
+    /** 当前行已写入的分隔符数 */
+    private int separators;
+    /** 日期格式（格式 -> 格式化器） */
+    private final Map<String, SimpleDateFormat> dateFormats = new HashMap<>();
+    /** 格式化日期时复用的缓冲区 */
+    private final StringBuffer dateBuffer = new StringBuffer();
+    /** 格式化日期时复用的字段位置 */
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+    /** 当前的日期格式 */
+    private String dateFormat = DEFAULT_DATE_FORMAT;
+    /** Bean的列计划缓存，每个实例各自创建，之后注册的转换器和数据格式对新的实例生效 */
+    private final Map<Class<?>, BeanColumns> beanColumns = new HashMap<>();
+
+    /**
+     * @param out       输出
+     * @param separator 分隔符
+     */
+    CsvSheets(Writer out, char separator) {
+        this.out = out;
+        this.separator = separator;
+    }
+
+    /**
+     * 设置日期格式，默认为yyyy-MM-dd HH:mm:ss
+     *
+     * @param dateFormat 日期格式
+     * @return this
+     */
+    public CsvSheets dateFormat(String dateFormat) {
+        this.dateFormat = dateFormat == null ? DEFAULT_DATE_FORMAT : dateFormat;
+        return this;
+    }
+
+    /**
+     * 获取当前列号
+     *
+     * @return 当前列号
+     */
+    public int getCurColIndex() {
+        return curColIndex;
+    }
+
+    /**
+     * 跳到下一行
+     *
+     * @return this
+     */
+    public CsvSheets nextRow() {
+        write('\r');
+        write('\n');
+        curColIndex = 0;
+        separators = 0;
+        return this;
+    }
+
+    /**
+     * 跳到下一个单元格
+     *
+     * @return this
+     */
+    public CsvSheets nextCell() {
+        curColIndex++;
+        return this;
+    }
+
+    /**
+     * 跳过指定数量的单元格
+     *
+     * @param num 跳过的数量
+     * @return this
+     */
+    public CsvSheets skipCell(int num) {
+        curColIndex += num + 1;
+        return this;
+    }
+
+    /**
+     * 设置当前单元格的值，需要时加上引号
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(@Nullable String value) {
+        startCell();
+        if (value != null)
+            writeEscaped(value);
+        return this;
+    }
+
+    /**
+     * 设置当前单元格的值
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(@Nullable RichTextString value) {
+        return value(value == null ? null : value.getString());
+    }
+
+    /**
+     * 设置当前单元格的值，按十进制写入，不使用科学计数法
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(double value) {
+        startCell();
+        double abs = Math.abs(value);
+        if (value == (long) value && abs < 1e15) {
+            writeLong((long) value);
+        } else if (abs >= 1e-3 && abs < 1e7 || Double.isNaN(value) || Double.isInfinite(value)) {
+            // 这个范围内Double.toString不使用科学计数法
+            writeRaw(Double.toString(value));
+        } else {
+            writeRaw(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+        }
+        return this;
+    }
+
+    /**
+     * 设置当前单元格的值，整数按原值写入，不经过double转换
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(long value) {
+        startCell();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * 按当前的日期格式设置当前单元格的值
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(@Nullable Date value) {
+        return value(value, dateFormat);
+    }
+
+    /**
+     * 按当前的日期格式设置当前单元格的值
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(@Nullable Calendar value) {
+        return value(value == null ? null : value.getTime(), dateFormat);
+    }
+
+    /**
+     * 设置当前单元格的值
+     *
+     * @param value 值
+     * @return this
+     */
+    public CsvSheets value(boolean value) {
+        startCell();
+        writeRaw(value ? "TRUE" : "FALSE");
+        return this;
+    }
+
+    /**
+     * 设置多个单元格的值，每设置一个值跳到下一个单元格
+     *
+     * @param values 值
+     * @return this
+     */
+    public CsvSheets values(String... values) {
+        for (String value : values) {
+            value(value).nextCell();
+        }
+        return this;
+    }
+
+    /**
+     * 设置多个单元格的值，每设置一个值跳到下一个单元格
+     *
+     * @param values 值
+     * @return this
+     */
+    public CsvSheets values(double... values) {
+        for (double value : values) {
+            value(value).nextCell();
+        }
+        return this;
+    }
+
+    /**
+     * 设置多个单元格的值，每设置一个值跳到下一个单元格
+     *
+     * @param values 值
+     * @return this
+     */
+    public CsvSheets values(Date... values) {
+        for (Date value : values) {
+            value(value).nextCell();
+        }
+        return this;
+    }
+
+    /**
+     * 设置多个单元格的值，每设置一个值跳到下一个单元格
+     *
+     * @param values 值
+     * @return this
+     */
+    public CsvSheets values(boolean... values) {
+        for (boolean value : values) {
+            value(value).nextCell();
+        }
+        return this;
+    }
+
+    /**
+     * 设置多行的值，每行结束后跳到下一行
+     *
+     * @param values 值
+     * @return this
+     */
+    public CsvSheets values(String[][] values) {
+        for (String[] row : values) {
+            values(row).nextRow();
+        }
+        return this;
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     *
+     * @param values bean集合
+     * @return this
+     */
+    public CsvSheets values(Iterable<?> values) {
+        return values(null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     *
+     * @param values bean迭代器，逐个读取
+     * @return this
+     */
+    public CsvSheets values(Iterator<?> values) {
+        return values(null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     *
+     * @param values bean流，逐个读取，不会关闭流
+     * @return this
+     */
+    public CsvSheets values(Stream<?> values) {
+        return values(null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
+     *
+     * @param style  样式，只使用日期格式
+     * @param values bean集合
+     * @return this
+     */
+    public CsvSheets values(@Nullable CellStyleBuilder style, Iterable<?> values) {
+        if (values == null) return this;
+        return values(style, values.iterator());
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
+     *
+     * @param style  样式，只使用日期格式
+     * @param values bean迭代器，逐个读取
+     * @return this
+     */
+    public CsvSheets values(@Nullable CellStyleBuilder style, Iterator<?> values) {
+        return values(style, null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
+     *
+     * @param style  样式，只使用日期格式
+     * @param values bean流，逐个读取，不会关闭流
+     * @return this
+     */
+    public CsvSheets values(@Nullable CellStyleBuilder style, Stream<?> values) {
+        if (values == null) return this;
+        return values(style, values.iterator());
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     *
+     * @param style     样式，只使用日期格式
+     * @param beanClass Bean类型，元素可以是它的子类
+     * @param values    bean集合
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> CsvSheets values(@Nullable CellStyleBuilder style, Class<T> beanClass, Iterable<? extends T> values) {
+        if (values == null) return this;
+        return values(style, beanClass, values.iterator());
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     *
+     * @param style     样式，只使用日期格式
+     * @param beanClass Bean类型，元素可以是它的子类
+     * @param values    bean流，逐个读取，不会关闭流
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> CsvSheets values(@Nullable CellStyleBuilder style, Class<T> beanClass, Stream<? extends T> values) {
+        if (values == null) return this;
+        return values(style, beanClass, values.iterator());
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值，日期使用样式的日期格式
+     * <p>逐个读取并写入，null元素写入空行
+     *
+     * @param style     样式，只使用日期格式
+     * @param beanClass Bean类型，元素可以是它的子类，为null时取第一个元素的类型
+     * @param values    bean迭代器
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> CsvSheets values(@Nullable CellStyleBuilder style, @Nullable Class<T> beanClass,
+                                Iterator<? extends T> values) {
+        if (values == null) return this;
+
+        String format = style != null && style.getDateFormat() != null ? style.getDateFormat() : dateFormat;
+        RowCells cells = beanClass == null ? null : new RowCells(getBeanColumns(beanClass), format);
+        while (values.hasNext()) {
+            T o = values.next();
+            if (o == null) {
+                nextRow();
+                continue;
+            }
+            if (cells == null)
+                cells = new RowCells(getBeanColumns(o.getClass()), format);
+            cells.write(o);
+        }
+        return this;
+    }
+
+    /**
+     * 写入表头，写入后跳到下一行
+     *
+     * @param headers 表头
+     * @return this
+     */
+    public CsvSheets header(String... headers) {
+        return values(headers).nextRow();
+    }
+
+    /**
+     * 写入表身，同{@link #values(CellStyleBuilder, Iterable)}
+     *
+     * @param style 样式，只使用日期格式
+     * @param body  bean集合
+     * @return this
+     */
+    public CsvSheets body(@Nullable CellStyleBuilder style, Iterable<?> body) {
+        return values(style, body);
+    }
+
+    /**
+     * 写入表身，同{@link #values(CellStyleBuilder, Stream)}
+     *
+     * @param style 样式，只使用日期格式
+     * @param body  bean流，逐个读取，不会关闭流
+     * @return this
+     */
+    public CsvSheets body(@Nullable CellStyleBuilder style, Stream<?> body) {
+        return values(style, body);
+    }
+
+    /**
+     * 把缓冲区写入Writer并刷新
+     */
+    @Override
+    public void flush() {
+        try {
+            flushBuffer();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把缓冲区写入Writer并关闭Writer
+     *
+     * @throws IOException IO错误
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 按指定的日期格式设置当前单元格的值
+     *
+     * @param value   值
+     * @param pattern 日期格式
+     * @return this
+     */
+    private CsvSheets value(@Nullable Date value, String pattern) {
+        startCell();
+        if (value == null) return this;
+
+        SimpleDateFormat format = dateFormats.get(pattern);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern);
+            dateFormats.put(pattern, format);
+        }
+        dateBuffer.setLength(0);
+        format.format(value, dateBuffer, fieldPosition);
+        writeEscaped(dateBuffer);
+        return this;
+    }
+
+    /**
+     * 开始写入当前单元格，补上前面的分隔符
+     */
+    private void startCell() {
+        while (separators < curColIndex) {
+            write(separator);
+            separators++;
+        }
+    }
+
+    /**
+     * 写入字段，包含分隔符、引号或换行时加上引号，引号转义为两个引号
+     *
+     * @param value 字段
+     */
+    private void writeEscaped(CharSequence value) {
+        int length = value.length();
+        boolean quote = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            writeRaw(value);
+            return;
+        }
+        write('"');
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                write('"');
+            write(c);
+        }
+        write('"');
+    }
+
+    /**
+     * 获取Bean的列计划，同一个Bean类型只创建一次
+     *
+     * @param beanClass Bean类型
+     * @return 列计划
+     */
+    private BeanColumns getBeanColumns(Class<?> beanClass) {
+        return beanColumns.computeIfAbsent(beanClass, BeanColumns::new);
+    }
+
+    /**
+     * 写入不需要转义的字符
+     *
+     * @param value 字符
+     */
+    private void writeRaw(CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            write(value.charAt(i));
+        }
+    }
+
+    /**
+     * 写入整数，不创建字符串
+     *
+     * @param value 整数
+     */
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            // 取反会溢出
+            writeRaw(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        if (count + 20 > buf.length)
+            flushBufferUnchecked();
+        int start = count;
+        do {
+            buf[count++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        // 数字是倒序写入的
+        for (int i = start, j = count - 1; i < j; i++, j--) {
+            char c = buf[i];
+            buf[i] = buf[j];
+            buf[j] = c;
+        }
+    }
+
+    /**
+     * 写入一个字符
+     *
+     * @param c 字符
+     */
+    private void write(char c) {
+        if (count == buf.length)
+            flushBufferUnchecked();
+        buf[count++] = c;
+    }
+
+    /**
+     * 把缓冲区写入Writer
+     *
+     * @throws IOException IO错误
+     */
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * 把缓冲区写入Writer，IO错误转换为{@link UncheckedIOException}
+     */
+    private void flushBufferUnchecked() {
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把转换器得到的单元格的值写入到当前单元格
+     *
+     * @param cell   单元格的值
+     * @param format 日期格式
+     */
+    private void writeCell(@Nullable Object cell, String format) {
+        if (cell == null) {
+            startCell();
+        } else if (cell instanceof BigDecimal) {
+            value(((BigDecimal) cell).toPlainString());
+        } else if (cell instanceof Integer || cell instanceof Long
+                || cell instanceof Short || cell instanceof Byte) {
+            value(((Number) cell).longValue());
+        } else if (cell instanceof BigInteger) {
+            value(cell.toString());
+        } else if (cell instanceof Float) {
+            value(Converters.toDouble((Float) cell));
+        } else if (cell instanceof Number) {
+            value(((Number) cell).doubleValue());
+        } else if (cell instanceof Boolean) {
+            value((boolean) (Boolean) cell);
+        } else if (cell instanceof Date) {
+            value((Date) cell, format);
+        } else if (cell instanceof Calendar) {
+            value(((Calendar) cell).getTime(), format);
+        } else if (cell instanceof RichTextString) {
+            value((RichTextString) cell);
+        } else {
+            value(cell.toString());
+        }
+    }
+
+    /**
+     * 一行中的单元格，每写入一个值跳到下一列，可以重复用于写入多行
+     * <p>列有转换器时，绑定直接写入的值也先经过转换器
+     */
+    private class RowCells implements RowBinding.Cells {
+        /** 列计划 */
+        private final BeanColumns columns;
+        /** 样式的日期格式 */
+        private final String format;
+        /** 下一个写入的列 */
+        private int index;
+
+        RowCells(BeanColumns columns, String format) {
+            this.columns = columns;
+            this.format = format;
+        }
+
+        /**
+         * 写入一行，写入后跳到下一行
+         *
+         * @param bean Bean对象
+         */
+        void write(Object bean) {
+            index = 0;
+            columns.write(bean, this);
+            nextRow();
+        }
+
+        @Override
+        public void value(@Nullable String value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable RichTextString value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(double value) {
+            if (converted()) value(columns.get(index).box(value));
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(long value) {
+            if (converted()) value(columns.get(index).box(value));
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(boolean value) {
+            if (converted()) value((Object) value);
+            else nextColumn().value(value).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Date value) {
+            if (converted()) value((Object) value);
+            else CsvSheets.this.value(value, nextFormat()).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Calendar value) {
+            if (converted()) value((Object) value);
+            else CsvSheets.this.value(value == null ? null : value.getTime(), nextFormat()).nextCell();
+        }
+
+        @Override
+        public void value(@Nullable Object value) {
+            BeanColumns.Column column = columns.get(index);
+            writeCell(column.toCell(value), nextFormat());
+            nextCell();
+        }
+
+        /**
+         * 判断当前列是否有转换器
+         *
+         * @return true为有转换器
+         */
+        private boolean converted() {
+            return columns.get(index).converter != null;
+        }
+
+        /**
+         * 移到下一列
+         *
+         * @return this
+         */
+        private CsvSheets nextColumn() {
+            index++;
+            return CsvSheets.this;
+        }
+
+        /**
+         * 获取当前列的日期格式，并移到下一列
+         *
+         * @return 日期格式，列没有数据格式时使用样式的日期格式
+         */
+        private String nextFormat() {
+            String columnFormat = columns.get(index++).format;
+            return columnFormat != null ? columnFormat : format;
+        }
+    }
+}
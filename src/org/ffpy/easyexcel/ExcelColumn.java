@@ -0,0 +1,48 @@
+package org.ffpy.easyexcel;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记Bean的字段为表格的列
+ * <p>Bean中有字段标记了该注解时，只有标记的字段作为列，按order排序，order相同的按字段定义顺序排序，
+ * 父类的字段排在前面。编译时加入{@link ExcelColumnProcessor}会为Bean生成{@link RowBinding}，
+ * 写入和读取时直接调用getter和setter，不再使用反射
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+
+	/**
+	 * 列的顺序，越小越靠前
+	 *
+	 * @return 列的顺序
+	 */
+	int order() default Integer.MAX_VALUE;
+
+	/**
+	 * 表头，为空时使用属性名
+	 *
+	 * @return 表头
+	 */
+	String header() default "";
+
+	/**
+	 * 数据格式，如"#,##0.00"、"yyyy-MM-dd"，为空时不指定数据格式。
+	 * 通过{@link Converters#format}设置的数据格式优先
+	 *
+	 * @return 数据格式
+	 */
+	String format() default "";
+
+	/**
+	 * 列宽（字符数），小于0时不设置列宽
+	 *
+	 * @return 列宽
+	 */
+	int width() default -1;
+}
@@ -0,0 +1,389 @@
+package org.ffpy.easyexcel;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link ExcelColumn}的注解处理器，为每个标记了注解的Bean生成{@link RowBinding}
+ * <p>生成的绑定直接调用getter、setter和无参构造器，列的顺序在编译时确定，运行时不需要反射和预热。
+ * 处理器已在META-INF/services中注册，编译时类路径中有本库即可自动启用
+ */
+@SupportedAnnotationTypes("org.ffpy.easyexcel.ExcelColumn")
+public class ExcelColumnProcessor extends AbstractProcessor {
+	/** 由单元格直接写入的类型，其它类型通过转换器写入 */
+	private static final Set<String> NATIVE_TYPES = new HashSet<>(Arrays.asList(
+		"java.lang.String", "java.util.Date", "java.util.Calendar", "org.apache.poi.ss.usermodel.RichTextString"));
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> beans = new LinkedHashSet<>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(ExcelColumn.class)) {
+			beans.add((TypeElement) element.getEnclosingElement());
+		}
+		for (TypeElement bean : beans) {
+			if (!checkAccessible(bean)) continue;
+			try {
+				generate(bean);
+			} catch (IOException e) {
+				error(bean, "生成" + bean.getQualifiedName() + RowBinding.SUFFIX + "失败：" + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 检查Bean能否被同一个包中的类访问
+	 *
+	 * @param bean Bean类型
+	 * @return true为可以访问
+	 */
+	private boolean checkAccessible(TypeElement bean) {
+		for (Element e = bean; e instanceof TypeElement; e = e.getEnclosingElement()) {
+			TypeElement type = (TypeElement) e;
+			if (type.getModifiers().contains(Modifier.PRIVATE)) {
+				error(bean, bean.getQualifiedName() + "不能是私有类");
+				return false;
+			}
+			if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+				error(bean, bean.getQualifiedName() + "必须是静态内部类");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 生成Bean的绑定
+	 *
+	 * @param bean Bean类型
+	 * @throws IOException 写入源文件失败
+	 */
+	private void generate(TypeElement bean) throws IOException {
+		List<VariableElement> fields = getColumnFields(bean);
+		String beanName = processingEnv.getTypeUtils().erasure(bean.asType()).toString();
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(bean);
+		String simpleName = getFlatName(bean) + RowBinding.SUFFIX;
+		String qualifiedName = pkg.isUnnamed() ? simpleName : pkg.getQualifiedName() + "." + simpleName;
+
+		StringBuilder properties = new StringBuilder();
+		StringBuilder columns = new StringBuilder();
+		StringBuilder writes = new StringBuilder();
+		StringBuilder sets = new StringBuilder();
+		for (int i = 0; i < fields.size(); i++) {
+			VariableElement field = fields.get(i);
+			String name = field.getSimpleName().toString();
+			TypeMirror type = field.asType();
+			ExecutableElement getter = findGetter(bean, name, type);
+			ExecutableElement setter = findSetter(bean, name, type);
+			if (getter == null) {
+				error(field, name + "没有getter方法");
+				return;
+			}
+
+			properties.append(i == 0 ? "" : ", ").append('"').append(name).append('"');
+			ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+			columns.append("        new ").append(RowBinding.Column.class.getCanonicalName())
+				.append("(\"").append(name).append("\", ")
+				.append(processingEnv.getTypeUtils().erasure(type)).append(".class, ")
+				.append(quote(column.header())).append(", ").append(quote(column.format())).append(", ")
+				.append(column.width()).append("),\n");
+			boolean direct = type.getKind().isPrimitive() || NATIVE_TYPES.contains(type.toString());
+			writes.append("        cells.value(").append(direct ? "" : "(Object) ")
+				.append("bean.").append(getter.getSimpleName()).append("());\n");
+			sets.append("            case ").append(i).append(":\n");
+			if (setter == null) {
+				sets.append("                throw new IllegalArgumentException(\"").append(name)
+					.append("没有setter方法\");\n");
+			} else {
+				sets.append("                bean.").append(setter.getSimpleName())
+					.append("((").append(getCastType(type)).append(") value);\n")
+					.append("                break;\n");
+			}
+		}
+
+		try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, bean).openWriter()) {
+			StringBuilder code = new StringBuilder();
+			if (!pkg.isUnnamed())
+				code.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+			// 泛型Bean和泛型属性使用擦除后的类型，不在使用者的编译中产生警告
+			code.append("/**\n * 由" + ExcelColumnProcessor.class.getName() + "生成，不要修改\n */\n"
+				+ "@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n"
+				+ "public final class " + simpleName + " implements " + RowBinding.class.getName()
+				+ "<" + beanName + "> {\n"
+				+ "    private static final String[] PROPERTIES = {" + properties + "};\n"
+				+ "    private static final " + RowBinding.Column.class.getCanonicalName() + "[] COLUMNS = {\n"
+				+ columns
+				+ "    };\n\n"
+				+ "    @Override\n"
+				+ "    public String[] properties() {\n"
+				+ "        return PROPERTIES.clone();\n"
+				+ "    }\n\n"
+				+ "    @Override\n"
+				+ "    public " + RowBinding.Column.class.getCanonicalName() + "[] columns() {\n"
+				+ "        return COLUMNS.clone();\n"
+				+ "    }\n\n"
+				+ "    @Override\n"
+				+ "    public " + beanName + " newInstance() {\n"
+				+ (hasNoArgConstructor(bean)
+				? "        return new " + beanName + "();\n"
+				: "        throw new RuntimeException(\""
+				+ processingEnv.getElementUtils().getBinaryName(bean) + "没有无参构造器\");\n")
+				+ "    }\n\n"
+				+ "    @Override\n"
+				+ "    public void write(" + beanName + " bean, " + RowBinding.Cells.class.getCanonicalName()
+				+ " cells) {\n"
+				+ writes
+				+ "    }\n\n"
+				+ "    @Override\n"
+				+ "    public void set(" + beanName + " bean, int index, Object value) {\n"
+				+ "        switch (index) {\n"
+				+ sets
+				+ "            default:\n"
+				+ "                throw new IndexOutOfBoundsException(String.valueOf(index));\n"
+				+ "        }\n"
+				+ "    }\n"
+				+ "}\n");
+			out.write(escapeNonAscii(code));
+		}
+	}
+
+	/**
+	 * 获取标记了注解的字段，与运行时的{@link BeanHelper}顺序相同：父类的字段在前，再按order稳定排序
+	 *
+	 * @param bean Bean类型
+	 * @return 字段列表
+	 */
+	private List<VariableElement> getColumnFields(TypeElement bean) {
+		List<TypeElement> hierarchy = new ArrayList<>();
+		for (TypeElement type = bean; type != null; type = getSuperclass(type)) {
+			hierarchy.add(type);
+		}
+		Collections.reverse(hierarchy);
+
+		// 子类中同名的字段不重复添加
+		Set<String> names = new HashSet<>();
+		List<VariableElement> fields = new ArrayList<>();
+		for (TypeElement type : hierarchy) {
+			for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+				if (field.getAnnotation(ExcelColumn.class) != null
+					&& !field.getModifiers().contains(Modifier.STATIC)
+					&& names.add(field.getSimpleName().toString())) {
+					fields.add(field);
+				}
+			}
+		}
+		fields.sort(Comparator.comparingInt(field -> field.getAnnotation(ExcelColumn.class).order()));
+		return fields;
+	}
+
+	/**
+	 * 获取父类，父类为Object时返回null
+	 *
+	 * @param type 类型
+	 * @return 父类
+	 */
+	private static TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) return null;
+		TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+	}
+
+	/**
+	 * 查找属性的getter方法，boolean属性也可以是isXxx()
+	 *
+	 * @param bean Bean类型
+	 * @param name 属性名
+	 * @param type 属性类型
+	 * @return getter方法，没有时返回null
+	 */
+	private ExecutableElement findGetter(TypeElement bean, String name, TypeMirror type) {
+		String suffix = capitalize(name);
+		for (ExecutableElement method : getMethods(bean)) {
+			String methodName = method.getSimpleName().toString();
+			if (method.getParameters().isEmpty()
+				&& processingEnv.getTypeUtils().isSameType(method.getReturnType(), type)
+				&& (methodName.equals("get" + suffix)
+				|| type.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + suffix))) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 查找属性的setter方法
+	 *
+	 * @param bean Bean类型
+	 * @param name 属性名
+	 * @param type 属性类型
+	 * @return setter方法，没有时返回null
+	 */
+	private ExecutableElement findSetter(TypeElement bean, String name, TypeMirror type) {
+		String methodName = "set" + capitalize(name);
+		for (ExecutableElement method : getMethods(bean)) {
+			if (method.getSimpleName().contentEquals(methodName) && method.getParameters().size() == 1
+				&& processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), type)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 获取Bean及其父类中可以调用的实例方法
+	 *
+	 * @param bean Bean类型
+	 * @return 方法列表
+	 */
+	private List<ExecutableElement> getMethods(TypeElement bean) {
+		List<ExecutableElement> methods = new ArrayList<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(
+			processingEnv.getElementUtils().getAllMembers(bean))) {
+			Set<Modifier> modifiers = method.getModifiers();
+			if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC))
+				methods.add(method);
+		}
+		return methods;
+	}
+
+	/**
+	 * 判断Bean能否通过无参构造器创建
+	 *
+	 * @param bean Bean类型
+	 * @return true为可以创建
+	 */
+	private static boolean hasNoArgConstructor(TypeElement bean) {
+		if (bean.getModifiers().contains(Modifier.ABSTRACT)) return false;
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(bean.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 获取setter参数的强制转换类型，基本类型转换为包装类型后自动拆箱
+	 *
+	 * @param type 属性类型
+	 * @return 类型名
+	 */
+	private String getCastType(TypeMirror type) {
+		if (type.getKind().isPrimitive())
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	/**
+	 * 获取生成的类名的前缀，内部类的各层类名以"_"连接
+	 *
+	 * @param bean Bean类型
+	 * @return 类名前缀
+	 */
+	private static String getFlatName(TypeElement bean) {
+		Element enclosing = bean.getEnclosingElement();
+		if (enclosing instanceof TypeElement)
+			return getFlatName((TypeElement) enclosing) + "_" + bean.getSimpleName();
+		return bean.getSimpleName().toString();
+	}
+
+	/**
+	 * 把非ASCII字符转换为Unicode转义，生成的源文件与编译时的编码无关
+	 *
+	 * @param code 源代码
+	 * @return 转换后的源代码
+	 */
+	private static String escapeNonAscii(CharSequence code) {
+		StringBuilder sb = new StringBuilder(code.length());
+		for (int i = 0; i < code.length(); i++) {
+			char c = code.charAt(i);
+			if (c < 128) {
+				sb.append(c);
+			} else {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 转换为Java字符串字面量
+	 *
+	 * @param value 字符串
+	 * @return 带引号的字符串字面量
+	 */
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				default:
+					sb.append(c);
+					break;
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	/**
+	 * 属性名首字母大写
+	 *
+	 * @param name 属性名
+	 * @return 首字母大写的属性名
+	 */
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	/**
+	 * 报告编译错误
+	 *
+	 * @param element 出错的元素
+	 * @param message 错误信息
+	 */
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
@@ -5,7 +5,15 @@ import com.sun.istack.internal.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Excel表格辅助类
@@ -15,26 +23,39 @@ public class ExcelHelper {
 	private final Workbooks workbook;
 	/** Sheet */
 	private final Sheets sheet;
-	/** 标题 */
-	private String title;
-	/** 标题样式 */
-	private CellStyleBuilder titleStyle;
+	/** 标题所在行号，-1为没有标题 */
+	private int titleRow = -1;
+	/** 标题是否已合并 */
+	private boolean titleMerged;
 	/** 自适应列宽，默认开启 */
 	private boolean autoColumnSize = true;
 
-	ExcelHelper() {
-		workbook = Excels.createWorkbook();
+	/**
+	 * @param workbook 工作簿
+	 */
+	ExcelHelper(Workbooks workbook) {
+		this.workbook = workbook;
 		sheet = workbook.createSheet();
 	}
 
 	/**
+	 * @param workbook  工作簿
 	 * @param sheetname Sheet名称
 	 */
-	ExcelHelper(String sheetname) {
-		workbook = Excels.createWorkbook();
+	ExcelHelper(Workbooks workbook, String sheetname) {
+		this.workbook = workbook;
 		sheet = workbook.createSheet(sheetname);
 	}
 
+	/**
+	 * @param workbook 工作簿
+	 * @param sheet    已有的Sheet
+	 */
+	ExcelHelper(Workbooks workbook, Sheets sheet) {
+		this.workbook = workbook;
+		this.sheet = sheet;
+	}
+
 	/**
 	 * 获取工作簿
 	 *
@@ -82,9 +103,11 @@ public class ExcelHelper {
 	 * @return this
 	 */
 	public ExcelHelper title(@Nullable CellStyleBuilder style, String title) {
-		this.title = title;
-		this.titleStyle = style;
-		sheet.nextRow();
+		// 标题直接写入当前行，写出时只需补上合并区域，流式写入时不必回到第一行
+		if (style != null)
+			sheet.style(style);
+		titleRow = sheet.getCurRowIndex();
+		sheet.value(title).nextRow();
 		return this;
 	}
 
@@ -110,6 +133,28 @@ public class ExcelHelper {
 		return this;
 	}
 
+	/**
+	 * 按照Bean的列设置表头，表头和列宽取自{@link ExcelColumn}，没有注解的列使用属性名作为表头
+	 *
+	 * @param style     样式
+	 * @param beanClass Bean类型
+	 * @return this
+	 */
+	public ExcelHelper header(@Nullable CellStyleBuilder style, Class<?> beanClass) {
+		BeanHelper beanHelper = BeanHelper.of(beanClass);
+		List<PropertyHelper> properties = beanHelper.getOrderedProperties();
+		String[] headers = new String[properties.size()];
+		int firstColumn = sheet.getCurColIndex();
+		for (int i = 0; i < headers.length; i++) {
+			PropertyHelper property = properties.get(i);
+			headers[i] = beanHelper.getHeader(property);
+			int width = beanHelper.getWidth(property);
+			if (width >= 0)
+				sheet.getSheet().setColumnWidth(firstColumn + i, width * 256);
+		}
+		return header(style, headers);
+	}
+
 	/**
 	 * 设置表身
 	 *
@@ -132,18 +177,130 @@ public class ExcelHelper {
 		return this;
 	}
 
+	/**
+	 * 设置表身
+	 *
+	 * @param body bean集合
+	 * @return this
+	 */
+	public ExcelHelper body(Iterable<?> body) {
+		return body(null, body);
+	}
+
 	/**
 	 * 设置表身
 	 *
 	 * @param style 样式
-	 * @param body 表身
+	 * @param body bean集合
+	 * @return this
+	 */
+	public ExcelHelper body(@Nullable CellStyleBuilder style, Iterable<?> body) {
+		sheet.values(style, body).nextRow();
+		return this;
+	}
+
+	/**
+	 * 设置表身
+	 * <p>保留List参数的版本，兼容按旧版本编译的代码
+	 *
+	 * @param style 样式
+	 * @param body bean集合
 	 * @return this
 	 */
 	public ExcelHelper body(@Nullable CellStyleBuilder style, List<?> body) {
+		return body(style, (Iterable<?>) body);
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param style 样式
+	 * @param body bean迭代器，逐个读取
+	 * @return this
+	 */
+	public ExcelHelper body(@Nullable CellStyleBuilder style, Iterator<?> body) {
+		sheet.values(style, body).nextRow();
+		return this;
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param style 样式
+	 * @param body bean流，逐个读取，不会关闭流
+	 * @return this
+	 */
+	public ExcelHelper body(@Nullable CellStyleBuilder style, Stream<?> body) {
 		sheet.values(style, body).nextRow();
 		return this;
 	}
 
+	/**
+	 * 设置表身
+	 *
+	 * @param style     样式
+	 * @param beanClass Bean类型
+	 * @param body      bean集合
+	 * @param <T>       Bean类型
+	 * @return this
+	 */
+	public <T> ExcelHelper body(@Nullable CellStyleBuilder style, Class<T> beanClass, Iterable<? extends T> body) {
+		sheet.values(style, beanClass, body).nextRow();
+		return this;
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param style     样式
+	 * @param beanClass Bean类型
+	 * @param body      bean迭代器，逐个读取
+	 * @param <T>       Bean类型
+	 * @return this
+	 */
+	public <T> ExcelHelper body(@Nullable CellStyleBuilder style, Class<T> beanClass, Iterator<? extends T> body) {
+		sheet.values(style, beanClass, body).nextRow();
+		return this;
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param style     样式
+	 * @param beanClass Bean类型
+	 * @param body      bean流，逐个读取，不会关闭流
+	 * @param <T>       Bean类型
+	 * @return this
+	 */
+	public <T> ExcelHelper body(@Nullable CellStyleBuilder style, Class<T> beanClass, Stream<? extends T> body) {
+		sheet.values(style, beanClass, body).nextRow();
+		return this;
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param resultSet 查询结果，从游标当前位置开始逐行读取，不会关闭
+	 * @return this
+	 * @throws SQLException 读取数据失败
+	 */
+	public ExcelHelper body(ResultSet resultSet) throws SQLException {
+		return body(null, resultSet);
+	}
+
+	/**
+	 * 设置表身
+	 *
+	 * @param style     样式
+	 * @param resultSet 查询结果，从游标当前位置开始逐行读取，不会关闭
+	 * @return this
+	 * @throws SQLException 读取数据失败
+	 */
+	public ExcelHelper body(@Nullable CellStyleBuilder style, ResultSet resultSet) throws SQLException {
+		sheet.values(style, resultSet).nextRow();
+		return this;
+	}
+
 	/**
 	 * 输出到文件
 	 *
@@ -166,17 +323,103 @@ public class ExcelHelper {
 		workbook.write(out);
 	}
 
+	/**
+	 * 输出到通道
+	 *
+	 * @param channel 通道，不会被关闭
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 * @see Workbooks#write(WritableByteChannel)
+	 */
+	public long write(WritableByteChannel channel) throws IOException {
+		beforeWrite();
+		return workbook.write(channel);
+	}
+
+	/**
+	 * 通过文件通道输出到文件
+	 *
+	 * @param path 文件路径
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 */
+	public long write(Path path) throws IOException {
+		beforeWrite();
+		return workbook.write(path);
+	}
+
+	/**
+	 * 输出到临时文件，用于在输出前得到文件大小
+	 *
+	 * @return 临时文件，使用完毕后需要关闭以删除临时文件
+	 * @throws IOException IO错误
+	 * @see Workbooks#spool()
+	 */
+	public SpoolFile spool() throws IOException {
+		beforeWrite();
+		return workbook.spool();
+	}
+
+	/**
+	 * 在线程池中异步输出到文件
+	 *
+	 * @param path     文件路径
+	 * @param executor 执行写入的线程池
+	 * @return 写入完成时完成
+	 * @see Workbooks#writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(Path path, Executor executor) {
+		return writeAsync(path, executor, false);
+	}
+
+	/**
+	 * 在线程池中异步输出到文件
+	 *
+	 * @param path     文件路径
+	 * @param executor 执行写入的线程池
+	 * @param release  写入后是否释放工作簿
+	 * @return 写入完成时完成
+	 * @see Workbooks#writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(Path path, Executor executor, boolean release) {
+		beforeWrite();
+		return workbook.writeAsync(path, executor, release);
+	}
+
+	/**
+	 * 在线程池中异步输出到输出流
+	 *
+	 * @param out      输出流，不会被关闭
+	 * @param executor 执行写入的线程池
+	 * @return 写入完成时完成
+	 * @see Workbooks#writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(OutputStream out, Executor executor) {
+		return writeAsync(out, executor, false);
+	}
+
+	/**
+	 * 在线程池中异步输出到输出流
+	 *
+	 * @param out      输出流，不会被关闭
+	 * @param executor 执行写入的线程池
+	 * @param release  写入后是否释放工作簿
+	 * @return 写入完成时完成
+	 * @see Workbooks#writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(OutputStream out, Executor executor, boolean release) {
+		beforeWrite();
+		return workbook.writeAsync(out, executor, release);
+	}
+
 	/**
 	 * 输出前的处理
 	 */
-	private void beforeWrite() {
-		// 写入标题
-		if (title != null) {
-			sheet.mergedRegion(0, 0, 0, sheet.getMaxColNum() - 1)
-				.to(0, 0);
-			if (titleStyle != null)
-				sheet.style(titleStyle);
-			sheet.value(title);
+	void beforeWrite() {
+		// 合并标题
+		if (titleRow >= 0 && !titleMerged && sheet.getMaxColNum() > 1) {
+			sheet.mergedRegion(titleRow, titleRow, 0, sheet.getMaxColNum() - 1);
+			titleMerged = true;
 		}
 		// 自适应列宽
 		if (autoColumnSize) {
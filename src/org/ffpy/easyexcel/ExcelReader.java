@@ -0,0 +1,596 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 流式读取Excel表格为Bean对象
+ * <p>.xls使用HSSF事件模型，.xlsx使用SAX解析，读取过程中不创建工作簿对象，
+ * 内存占用与表格的行数无关，每读取一行就交给回调处理
+ *
+ * @param <T> Bean类型
+ */
+public class ExcelReader<T> {
+	/** 流水线方式每批转换的默认行数 */
+	private static final int DEFAULT_BATCH_SIZE = 256;
+
+	/** Bean类型 */
+	private final Class<T> beanClass;
+	/** 各属性对应的表头，为null时按列的顺序对应属性 */
+	private String[] headers;
+	/** 表头所在的行，-1表示没有表头 */
+	private int headerRow = 0;
+	/** 要读取的Sheet序号 */
+	private int sheetIndex = 0;
+	/** 要读取的Sheet名称，为null时按序号选择 */
+	private String sheetName;
+	/** 各属性对应的列号，为null时按列的顺序对应属性 */
+	private int[] columns;
+	/** 读取的第一行 */
+	private int firstRow = 0;
+	/** 读取的最后一行 */
+	private int lastRow = Integer.MAX_VALUE;
+	/** 最多读取的行数 */
+	private int limit = Integer.MAX_VALUE;
+	/** 行偏移索引，为null时从头解析 */
+	private XlsxRowIndex index;
+	/** 转换Bean的线程池，为null时在当前线程转换 */
+	private Executor executor;
+	/** 每批转换的行数 */
+	private int batchSize;
+	/** 最多等待交付的批数 */
+	private int maxPendingBatches;
+
+	/**
+	 * @param beanClass Bean类型，必须有无参构造器
+	 */
+	ExcelReader(Class<T> beanClass) {
+		this.beanClass = beanClass;
+	}
+
+	/**
+	 * 设置各属性对应的表头，顺序与Bean的字段顺序一致，为null的属性不读取
+	 * <p>设置后第一个包含所有表头的行作为表头行，按表头所在的列读取属性，
+	 * 表头行及之前的行不读取，读取时找不到表头会抛出异常
+	 *
+	 * @param headers 表头
+	 * @return this
+	 */
+	public ExcelReader<T> headers(String... headers) {
+		this.headers = headers;
+		return this;
+	}
+
+	/**
+	 * 设置表头所在的行，该行及之前的行不读取，默认为0
+	 * <p>没有设置表头时，按列的顺序对应Bean的字段
+	 *
+	 * @param headerRow 行号，从0开始，-1表示没有表头
+	 * @return this
+	 */
+	public ExcelReader<T> headerRow(int headerRow) {
+		if (headerRow < -1)
+			throw new IllegalArgumentException("表头行号不能小于-1");
+		this.headerRow = headerRow;
+		return this;
+	}
+
+	/**
+	 * 设置要读取的Sheet，默认为0
+	 *
+	 * @param sheetIndex Sheet序号，从0开始
+	 * @return this
+	 */
+	public ExcelReader<T> sheet(int sheetIndex) {
+		if (sheetIndex < 0)
+			throw new IllegalArgumentException("Sheet序号不能小于0");
+		this.sheetIndex = sheetIndex;
+		this.sheetName = null;
+		return this;
+	}
+
+	/**
+	 * 按名称设置要读取的Sheet，其它Sheet不会被解析
+	 *
+	 * @param sheetName Sheet名称
+	 * @return this
+	 */
+	public ExcelReader<T> sheet(String sheetName) {
+		this.sheetName = Objects.requireNonNull(sheetName);
+		return this;
+	}
+
+	/**
+	 * 设置各属性对应的列号，顺序与Bean的字段顺序一致，-1表示不读取该属性
+	 * <p>没有设置表头时使用，其它列的单元格不会被转换
+	 *
+	 * @param columns 列号，从0开始
+	 * @return this
+	 */
+	public ExcelReader<T> columns(int... columns) {
+		for (int column : columns) {
+			if (column < -1)
+				throw new IllegalArgumentException("列号不能小于-1");
+		}
+		this.columns = columns;
+		return this;
+	}
+
+	/**
+	 * 设置读取的行范围，读取完最后一行后立即停止解析
+	 *
+	 * @param firstRow 第一行，从0开始
+	 * @param lastRow  最后一行（包含）
+	 * @return this
+	 */
+	public ExcelReader<T> rows(int firstRow, int lastRow) {
+		if (firstRow < 0 || lastRow < firstRow)
+			throw new IllegalArgumentException("行范围不正确：" + firstRow + "-" + lastRow);
+		this.firstRow = firstRow;
+		this.lastRow = lastRow;
+		return this;
+	}
+
+	/**
+	 * 设置最多读取的行数，达到后立即停止解析，用于预览等场景
+	 *
+	 * @param limit 行数
+	 * @return this
+	 */
+	public ExcelReader<T> limit(int limit) {
+		if (limit <= 0)
+			throw new IllegalArgumentException("行数必须大于0");
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * 使用行偏移索引读取.xlsx文件，读取索引对应的Sheet
+	 * <p>配合{@link #rows(int, int)}分页读取时，从第一行之前最近的检查点开始解析，
+	 * 跳过的部分只解压不解析
+	 *
+	 * @param index 行偏移索引，为null时不使用索引
+	 * @return this
+	 * @see XlsxRowIndex#loadOrBuild(File, int, int)
+	 */
+	public ExcelReader<T> index(@Nullable XlsxRowIndex index) {
+		this.index = index;
+		return this;
+	}
+
+	/**
+	 * 使用流水线方式读取
+	 * <p>一个线程解析文件，把原始行按批放入有界队列，线程池并行把每批转换为Bean对象，
+	 * 调用线程按原来的顺序交付给回调。等待交付的批数达到上限时解析线程会暂停，
+	 * 因此内存占用仍然有上限
+	 *
+	 * @param executor 转换Bean的线程池
+	 * @return this
+	 */
+	public ExcelReader<T> parallel(Executor executor) {
+		return parallel(executor, DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * 使用流水线方式读取
+	 *
+	 * @param executor          转换Bean的线程池
+	 * @param batchSize         每批转换的行数
+	 * @param maxPendingBatches 最多等待交付的批数
+	 * @return this
+	 * @see #parallel(Executor)
+	 */
+	public ExcelReader<T> parallel(Executor executor, int batchSize, int maxPendingBatches) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("每批的行数必须大于0");
+		if (maxPendingBatches <= 0)
+			throw new IllegalArgumentException("等待交付的批数必须大于0");
+		this.executor = Objects.requireNonNull(executor);
+		this.batchSize = batchSize;
+		this.maxPendingBatches = maxPendingBatches;
+		return this;
+	}
+
+	/**
+	 * 逐行读取文件
+	 *
+	 * @param file     .xls或.xlsx文件
+	 * @param consumer 每读取一行调用一次
+	 */
+	public void read(File file, Consumer<? super T> consumer) {
+		if (executor != null) {
+			readPipelined(file, consumer);
+			return;
+		}
+		parse(file, new BindingHandler() {
+			@Override
+			boolean dataRow(BeanRowReader<T> reader, int rowIndex, Object[] cells) {
+				consumer.accept(reader.read(rowIndex, cells));
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * 逐行读取输入流
+	 * <p>输入流会先写入临时文件再读取，避免把整个文件读入内存
+	 *
+	 * @param in       .xls或.xlsx的输入流，不会被关闭
+	 * @param consumer 每读取一行调用一次
+	 */
+	public void read(InputStream in, Consumer<? super T> consumer) {
+		File temp = null;
+		try {
+			temp = File.createTempFile("easyexcel-", ".tmp");
+			Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			read(temp, consumer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if (temp != null && !temp.delete())
+				temp.deleteOnExit();
+		}
+	}
+
+	/**
+	 * 读取文件的所有行
+	 *
+	 * @param file .xls或.xlsx文件
+	 * @return Bean对象列表
+	 */
+	public List<T> readAll(File file) {
+		List<T> list = new ArrayList<>();
+		read(file, list::add);
+		return list;
+	}
+
+	/**
+	 * 读取输入流的所有行
+	 *
+	 * @param in .xls或.xlsx的输入流，不会被关闭
+	 * @return Bean对象列表
+	 */
+	public List<T> readAll(InputStream in) {
+		List<T> list = new ArrayList<>();
+		read(in, list::add);
+		return list;
+	}
+
+	/**
+	 * 以流水线方式读取文件
+	 *
+	 * @param file     .xls或.xlsx文件
+	 * @param consumer 每读取一行调用一次
+	 */
+	private void readPipelined(File file, Consumer<? super T> consumer) {
+		BlockingQueue<CompletableFuture<List<T>>> queue = new ArrayBlockingQueue<>(maxPendingBatches);
+		CompletableFuture<List<T>> end = CompletableFuture.completedFuture(Collections.emptyList());
+		AtomicBoolean cancelled = new AtomicBoolean();
+
+		Thread parser = new Thread(() -> {
+			try {
+				parse(file, new BindingHandler() {
+					/** 当前批的行号 */
+					private int[] rowIndexes = new int[batchSize];
+					/** 当前批的行 */
+					private Object[][] rows = new Object[batchSize][];
+					/** 当前批的行数 */
+					private int size;
+
+					@Override
+					boolean dataRow(BeanRowReader<T> reader, int rowIndex, Object[] cells) {
+						rowIndexes[size] = rowIndex;
+						rows[size++] = cells;
+						if (size == batchSize)
+							flush(reader);
+						return !cancelled.get();
+					}
+
+					@Override
+					void finish(BeanRowReader<T> reader) {
+						if (size > 0)
+							flush(reader);
+					}
+
+					/**
+					 * 提交当前批
+					 *
+					 * @param reader 行读取计划
+					 */
+					private void flush(BeanRowReader<T> reader) {
+						int[] batchIndexes = rowIndexes;
+						Object[][] batchRows = rows;
+						int batchCount = size;
+						enqueue(queue, cancelled, CompletableFuture.supplyAsync(() -> {
+							List<T> beans = new ArrayList<>(batchCount);
+							for (int i = 0; i < batchCount; i++) {
+								beans.add(reader.read(batchIndexes[i], batchRows[i]));
+							}
+							return beans;
+						}, executor));
+						rowIndexes = new int[batchSize];
+						rows = new Object[batchSize][];
+						size = 0;
+					}
+				});
+			} catch (Throwable e) {
+				CompletableFuture<List<T>> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				enqueue(queue, cancelled, failed);
+			} finally {
+				enqueue(queue, cancelled, end);
+			}
+		}, "easyexcel-reader");
+		parser.setDaemon(true);
+		parser.start();
+
+		try {
+			for (CompletableFuture<List<T>> batch = take(queue); batch != end; batch = take(queue)) {
+				List<T> beans;
+				try {
+					beans = batch.join();
+				} catch (CompletionException e) {
+					if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					if (e.getCause() instanceof Error)
+						throw (Error) e.getCause();
+					throw e;
+				}
+				for (T bean : beans) {
+					consumer.accept(bean);
+				}
+			}
+		} finally {
+			// 出错时让解析线程尽快结束
+			cancelled.set(true);
+			try {
+				parser.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 把一批放入队列，队列满时等待，已取消时放弃
+	 *
+	 * @param queue     队列
+	 * @param cancelled 是否已取消
+	 * @param batch     批
+	 */
+	private static <E> void enqueue(BlockingQueue<E> queue, AtomicBoolean cancelled, E batch) {
+		try {
+			while (!cancelled.get()) {
+				if (queue.offer(batch, 100, TimeUnit.MILLISECONDS))
+					return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 从队列中取出下一批
+	 *
+	 * @param queue 队列
+	 * @return 批
+	 */
+	private static <E> E take(BlockingQueue<E> queue) {
+		try {
+			return queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("读取被中断", e);
+		}
+	}
+
+	/**
+	 * 按文件格式选择读取器解析文件
+	 *
+	 * @param file    .xls或.xlsx文件
+	 * @param handler 行处理器
+	 */
+	private void parse(File file, BindingHandler handler) {
+		try {
+			FileMagic magic = Excels.fileMagic(file);
+			if (index != null) {
+				parseIndexed(file, magic, handler);
+				finish(handler);
+				return;
+			}
+			boolean found;
+			switch (magic) {
+				case OLE2:
+					found = XlsRowParser.parse(file, sheetIndex, sheetName, handler);
+					break;
+				case OOXML:
+					found = XlsxRowParser.parse(file, sheetIndex, sheetName, handler);
+					break;
+				default:
+					throw new RuntimeException("不支持的文件格式：" + file);
+			}
+			if (!found)
+				throw new RuntimeException("找不到Sheet：" + (sheetName != null ? sheetName : sheetIndex));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finish(handler);
+	}
+
+	/**
+	 * 解析结束，设置了表头但没有找到时抛出异常，而不是当作没有数据
+	 *
+	 * @param handler 行处理器
+	 */
+	private void finish(BindingHandler handler) {
+		if (handler.reader == null) {
+			if (headers != null)
+				throw new RuntimeException("找不到表头：" + Arrays.toString(headers));
+			return;
+		}
+		handler.finish(handler.reader);
+	}
+
+	/**
+	 * 借助行偏移索引从第一行附近开始解析
+	 *
+	 * @param file    .xlsx文件
+	 * @param magic   文件格式
+	 * @param handler 行处理器
+	 * @throws IOException 读取失败
+	 */
+	private void parseIndexed(File file, FileMagic magic, BindingHandler handler) throws IOException {
+		if (magic != FileMagic.OOXML)
+			throw new RuntimeException("只有.xlsx文件支持行偏移索引：" + file);
+		if (!index.matches(file))
+			throw new RuntimeException("行偏移索引已失效，文件已被修改：" + file);
+
+		if (handler.reader == null) {
+			// 先从头解析到表头行，再跳到第一行
+			XlsxRowParser.parse(file, index.getSheetIndex(), null, new RowHandler() {
+				@Override
+				public boolean row(int rowIndex, Object[] cells) {
+					handler.row(rowIndex, cells);
+					return handler.reader == null;
+				}
+
+				@Override
+				public boolean acceptColumn(int column) {
+					return handler.acceptColumn(column);
+				}
+			});
+			if (handler.reader == null) return;
+		}
+		XlsxRowParser.parse(file, index, firstRow, handler);
+	}
+
+	/**
+	 * 定位表头后把每一行交给{@link #dataRow}处理
+	 */
+	private abstract class BindingHandler implements RowHandler {
+		/** 行读取计划，找到表头后创建 */
+		BeanRowReader<T> reader;
+		/** 已读取的行数 */
+		private int count;
+
+		BindingHandler() {
+			if (headers == null && headerRow < 0)
+				reader = new BeanRowReader<>(beanClass, indexColumns());
+		}
+
+		@Override
+		public boolean row(int rowIndex, Object[] cells) {
+			if (reader == null) {
+				if (headers != null) {
+					// 表头行本身不读取
+					int[] columnMap = locateHeaders(cells);
+					if (columnMap != null)
+						reader = new BeanRowReader<>(beanClass, columnMap);
+					return true;
+				}
+				if (rowIndex < headerRow) return true;
+				reader = new BeanRowReader<>(beanClass, indexColumns());
+				if (rowIndex == headerRow) return true;
+			}
+			if (rowIndex < firstRow) return true;
+			if (rowIndex > lastRow) return false;
+			if (isBlank(cells)) return true;
+			if (!dataRow(reader, rowIndex, cells)) return false;
+			// 达到行数或行范围后立即停止，不再解析后面的行
+			return ++count < limit && rowIndex < lastRow;
+		}
+
+		@Override
+		public boolean acceptColumn(int column) {
+			// 定位表头时需要所有列
+			return reader == null || reader.hasColumn(column);
+		}
+
+		/**
+		 * 处理一个数据行
+		 *
+		 * @param reader   行读取计划
+		 * @param rowIndex 行号
+		 * @param cells    各列的值
+		 * @return true为继续读取，false为停止读取
+		 */
+		abstract boolean dataRow(BeanRowReader<T> reader, int rowIndex, Object[] cells);
+
+		/**
+		 * 读取结束
+		 *
+		 * @param reader 行读取计划
+		 */
+		void finish(BeanRowReader<T> reader) {
+		}
+
+		/**
+		 * 在一行中查找所有表头
+		 *
+		 * @param cells 各列的值
+		 * @return 各属性对应的列号，不包含所有表头时返回null
+		 */
+		private int[] locateHeaders(Object[] cells) {
+			int[] columnMap = new int[headers.length];
+			for (int i = 0; i < headers.length; i++) {
+				columnMap[i] = -1;
+				if (headers[i] == null) continue;
+				for (int j = 0; j < cells.length; j++) {
+					if (cells[j] != null && headers[i].equals(cells[j].toString().trim())) {
+						columnMap[i] = j;
+						break;
+					}
+				}
+				if (columnMap[i] < 0) return null;
+			}
+			return columnMap;
+		}
+
+		/**
+		 * 按设置的列号或列的顺序对应属性
+		 *
+		 * @return 各属性对应的列号
+		 */
+		private int[] indexColumns() {
+			if (columns != null) return columns;
+			int[] columnMap = new int[BeanHelper.of(beanClass).getOrderedProperties().size()];
+			for (int i = 0; i < columnMap.length; i++) {
+				columnMap[i] = i;
+			}
+			return columnMap;
+		}
+
+		/**
+		 * 判断是否为空行
+		 *
+		 * @param cells 各列的值
+		 * @return true为空行
+		 */
+		private boolean isBlank(Object[] cells) {
+			for (Object cell : cells) {
+				if (cell != null && !"".equals(cell)) return false;
+			}
+			return true;
+		}
+	}
+}
@@ -1,6 +1,22 @@
 package org.ffpy.easyexcel;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * 封装了Apache POI操作Excel辅助类
@@ -13,7 +29,98 @@ public class Excels {
 	 * @return 工作簿实例
 	 */
 	public static Workbooks createWorkbook() {
-		return new Workbooks(new HSSFWorkbook());
+		return createWorkbook(WorkbookType.HSSF);
+	}
+
+	/**
+	 * 创建一个指定类型的工作簿实例
+	 * <p>流式工作簿使用默认的行窗口大小
+	 *
+	 * @param type 工作簿类型
+	 * @return 工作簿实例
+	 */
+	public static Workbooks createWorkbook(WorkbookType type) {
+		switch (type) {
+			case XSSF:
+				return new Workbooks(new XSSFWorkbook());
+			case SXSSF:
+				return createStreamingWorkbook(SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+			default:
+				return new Workbooks(new HSSFWorkbook());
+		}
+	}
+
+	/**
+	 * 创建一个流式写入的工作簿实例（.xlsx）
+	 * <p>内存中最多保留rowAccessWindowSize行，超出的行会被刷新到临时文件，
+	 * 刷新后的行不能再访问和修改
+	 *
+	 * @param rowAccessWindowSize 内存中保留的行数
+	 * @return 工作簿实例
+	 */
+	public static Workbooks createStreamingWorkbook(int rowAccessWindowSize) {
+		if (rowAccessWindowSize <= 0)
+			throw new IllegalArgumentException("行窗口大小必须大于0");
+		SXSSFWorkbook workbook = new StreamingWorkbook(rowAccessWindowSize);
+		workbook.setCompressTempFiles(true);
+		return new Workbooks(workbook);
+	}
+
+	/**
+	 * 打开已有的工作簿（.xls或.xlsx）
+	 * <p>.xls通过文件通道按需读取数据块，.xlsx通过ZipFile按需读取各部分，
+	 * 不会先把整个文件复制到内存中。通过{@link Workbooks#close()}关闭时不会修改原文件，
+	 * 修改后的内容需要写入到其它文件
+	 * <p>.xlsx以读写方式打开（只读方式不能再写入到其它文件），直接关闭{@link Workbooks#getWorkbook()}得到的POI工作簿
+	 * （包括用try-with-resources管理它）会把修改保存回原文件，应只关闭返回的{@link Workbooks}
+	 *
+	 * @param path 文件路径
+	 * @return 工作簿实例
+	 */
+	public static Workbooks open(Path path) {
+		File file = path.toFile();
+		try {
+			switch (fileMagic(file)) {
+				case OLE2: {
+					NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+					try {
+						return new Workbooks(new HSSFWorkbook(fs.getRoot(), true), true);
+					} catch (IOException | RuntimeException e) {
+						fs.close();
+						throw e;
+					}
+				}
+				case OOXML: {
+					OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ_WRITE);
+					try {
+						return new Workbooks(new XSSFWorkbook(pkg), true);
+					} catch (IOException | RuntimeException e) {
+						pkg.revert();
+						throw e;
+					}
+				}
+				default:
+					throw new RuntimeException("不支持的文件格式：" + file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (InvalidFormatException e) {
+			throw new RuntimeException("打开文件失败：" + file, e);
+		}
+	}
+
+	/**
+	 * 识别文件格式
+	 *
+	 * @param file 文件
+	 * @return 文件格式
+	 * @throws IOException 读取失败
+	 */
+	static FileMagic fileMagic(File file) throws IOException {
+		try (InputStream in = FileMagic.prepareToCheckMagic(
+				new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			return FileMagic.valueOf(in);
+		}
 	}
 
 	/**
@@ -22,7 +129,7 @@ public class Excels {
 	 * @return Excel表格辅助者
 	 */
 	public static ExcelHelper helper() {
-		return new ExcelHelper();
+		return new ExcelHelper(createWorkbook());
 	}
 
 	/**
@@ -32,6 +139,58 @@ public class Excels {
 	 * @return Excel表格辅助者
 	 */
 	public static ExcelHelper helper(String sheetname) {
-		return new ExcelHelper(sheetname);
+		return new ExcelHelper(createWorkbook(), sheetname);
+	}
+
+	/**
+	 * 基于指定的工作簿创建一个Excel表格辅助者
+	 *
+	 * @param workbooks 工作簿，如{@link #createStreamingWorkbook(int)}创建的流式工作簿
+	 * @return Excel表格辅助者
+	 */
+	public static ExcelHelper helper(Workbooks workbooks) {
+		return new ExcelHelper(workbooks);
+	}
+
+	/**
+	 * 基于指定的工作簿创建一个Excel表格辅助者
+	 *
+	 * @param workbooks 工作簿，如{@link #createStreamingWorkbook(int)}创建的流式工作簿
+	 * @param sheetname Sheet名称
+	 * @return Excel表格辅助者
+	 */
+	public static ExcelHelper helper(Workbooks workbooks, String sheetname) {
+		return new ExcelHelper(workbooks, sheetname);
+	}
+
+	/**
+	 * 创建一个流式读取器，把表格的每一行读取为Bean对象
+	 *
+	 * @param beanClass Bean类型，必须有无参构造器
+	 * @param <T>       Bean类型
+	 * @return 读取器
+	 */
+	public static <T> ExcelReader<T> reader(Class<T> beanClass) {
+		return new ExcelReader<>(beanClass);
+	}
+
+	/**
+	 * 创建一个CSV写入辅助类，以逗号分隔
+	 *
+	 * @param out 输出，关闭时一起关闭
+	 * @return CSV写入辅助类
+	 */
+	public static CsvSheets csv(Writer out) {
+		return new CsvSheets(out, ',');
+	}
+
+	/**
+	 * 创建一个TSV写入辅助类，以制表符分隔
+	 *
+	 * @param out 输出，关闭时一起关闭
+	 * @return TSV写入辅助类
+	 */
+	public static CsvSheets tsv(Writer out) {
+		return new CsvSheets(out, '\t');
 	}
 }
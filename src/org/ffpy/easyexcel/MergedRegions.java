@@ -0,0 +1,125 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 合并单元格索引
+ * <p>按行号索引合并区域，每行的合并区域按起始列号排序，
+ * 同一行中的合并区域互不重叠，因此只需查找起始列号不大于指定列号的最后一个区域
+ */
+class MergedRegions {
+    /** 行号 -> (起始列号 -> 合并区域) */
+    private final Map<Integer, TreeMap<Integer, CellRangeAddress>> rows = new HashMap<>();
+    /** 最近查找的行号 */
+    private int cachedRowIndex = -1;
+    /** 最近查找的行的合并区域 */
+    private TreeMap<Integer, CellRangeAddress> cachedRow;
+
+    /**
+     * 添加合并区域
+     *
+     * @param region 合并区域
+     * @throws IllegalStateException 与已有的合并区域重叠
+     */
+    public void add(CellRangeAddress region) {
+        CellRangeAddress overlapped = findOverlapped(region);
+        if (overlapped != null)
+            throw new IllegalStateException("合并区域" + region.formatAsString() +
+                    "与已有的合并区域" + overlapped.formatAsString() + "重叠");
+        index(region);
+    }
+
+    /**
+     * 添加Sheet中已有的合并区域，重叠时不抛出异常
+     * <p>Excel和旧版本POI生成的文件中可能有互相重叠的合并区域，与已添加的区域重叠的区域不加入索引，
+     * 保持同一行中的合并区域互不重叠，跳过单元格时以先添加的区域为准
+     *
+     * @param region 合并区域
+     */
+    public void addExisting(CellRangeAddress region) {
+        if (findOverlapped(region) == null)
+            index(region);
+    }
+
+    /**
+     * 把合并区域加入索引
+     *
+     * @param region 合并区域
+     */
+    private void index(CellRangeAddress region) {
+        for (int r = region.getFirstRow(); r <= region.getLastRow(); r++) {
+            TreeMap<Integer, CellRangeAddress> regions = rows.get(r);
+            if (regions == null) {
+                regions = new TreeMap<>();
+                rows.put(r, regions);
+            }
+            regions.put(region.getFirstColumn(), region);
+        }
+        cachedRowIndex = -1;
+        cachedRow = null;
+    }
+
+    /**
+     * 查找与区域重叠的合并区域
+     *
+     * @param region 区域
+     * @return 重叠的合并区域，没有则返回null
+     */
+    public CellRangeAddress findOverlapped(CellRangeAddress region) {
+        if (rows.isEmpty()) return null;
+        for (int r = region.getFirstRow(); r <= region.getLastRow(); r++) {
+            CellRangeAddress overlapped = find(r, region.getFirstColumn(), region.getLastColumn());
+            if (overlapped != null) return overlapped;
+        }
+        return null;
+    }
+
+    /**
+     * 跳过合并单元格
+     * <p>如果指定位置在合并单元格的内部，并且不在合并单元格的左上角，
+     * 则返回合并单元格之后的列号，否则返回原列号
+     *
+     * @param row 行号
+     * @param col 列号
+     * @return 跳过合并单元格后的列号
+     */
+    public int skip(int row, int col) {
+        if (rows.isEmpty()) return col;
+
+        if (row != cachedRowIndex) {
+            cachedRowIndex = row;
+            cachedRow = rows.get(row);
+        }
+        if (cachedRow == null) return col;
+
+        // 相邻的合并区域需要连续跳过
+        while (true) {
+            Map.Entry<Integer, CellRangeAddress> entry = cachedRow.floorEntry(col);
+            if (entry == null) return col;
+            CellRangeAddress region = entry.getValue();
+            if (col > region.getLastColumn()) return col;
+            if (row == region.getFirstRow() && col == region.getFirstColumn()) return col;
+            col = region.getLastColumn() + 1;
+        }
+    }
+
+    /**
+     * 查找指定行中与列区间重叠的合并区域
+     *
+     * @param row      行号
+     * @param firstCol 起始列号
+     * @param lastCol  结束列号（包括）
+     * @return 重叠的合并区域，没有则返回null
+     */
+    private CellRangeAddress find(int row, int firstCol, int lastCol) {
+        TreeMap<Integer, CellRangeAddress> regions = rows.get(row);
+        if (regions == null) return null;
+        Map.Entry<Integer, CellRangeAddress> entry = regions.floorEntry(lastCol);
+        if (entry == null || entry.getValue().getLastColumn() < firstCol) return null;
+        return entry.getValue();
+    }
+}
@@ -0,0 +1,139 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 并行生成多个Sheet
+ * <p>Sheet按照添加的顺序在调用线程中依次创建，然后在线程池中并行填充，全部完成后才返回。
+ * 流式工作簿的每个Sheet写入各自的临时文件，填充时完全并行；
+ * 其它工作簿的字符串表和样式表由所有Sheet共享，写入字符串和设置样式时会加锁。
+ * 样式通过工作簿的样式池共享，同一个{@link CellStyleBuilder}在所有Sheet中对应同一个样式
+ */
+public class ParallelSheets {
+	/** 工作簿 */
+	private final Workbooks workbooks;
+	/** 线程池 */
+	private final Executor executor;
+	/** Sheet名称，为null时使用默认名称 */
+	private final List<String> sheetnames = new ArrayList<>();
+	/** 填充任务 */
+	private final List<SheetTask> tasks = new ArrayList<>();
+
+	/**
+	 * @param workbooks 工作簿
+	 * @param executor  线程池
+	 */
+	ParallelSheets(Workbooks workbooks, Executor executor) {
+		this.workbooks = workbooks;
+		this.executor = executor;
+	}
+
+	/**
+	 * 添加一个使用默认名称的Sheet
+	 *
+	 * @param task 填充任务
+	 * @return this
+	 */
+	public ParallelSheets sheet(SheetTask task) {
+		return sheet(null, task);
+	}
+
+	/**
+	 * 添加一个Sheet
+	 *
+	 * @param sheetname Sheet名称，为null时使用默认名称
+	 * @param task      填充任务
+	 * @return this
+	 */
+	public ParallelSheets sheet(@Nullable String sheetname, SheetTask task) {
+		sheetnames.add(sheetname);
+		tasks.add(task);
+		return this;
+	}
+
+	/**
+	 * 创建所有Sheet并并行填充，等待全部完成
+	 *
+	 * @return 工作簿
+	 * @throws RuntimeException 有任务失败，包含第一个失败的任务的异常，其它任务的异常作为被抑制的异常
+	 */
+	public Workbooks execute() {
+		// 按照添加顺序创建Sheet，保证Sheet的顺序固定
+		List<Sheets> sheetsList = new ArrayList<>(tasks.size());
+		Object sharedLock = workbooks.isStreaming() ? null : workbooks.getSharedLock();
+		List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+		RuntimeException error = null;
+		try {
+			for (String sheetname : sheetnames) {
+				Sheets sheets = sheetname == null ? workbooks.createSheet() : workbooks.createSheet(sheetname);
+				sheets.setSharedLock(sharedLock);
+				sheetsList.add(sheets);
+			}
+
+			// 线程池拒绝任务时不再提交后面的任务，等待已提交的任务结束
+			RuntimeException rejected = null;
+			for (int i = 0; i < tasks.size(); i++) {
+				final SheetTask task = tasks.get(i);
+				final Sheets sheets = sheetsList.get(i);
+				try {
+					futures.add(CompletableFuture.runAsync(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								task.fill(sheets);
+							} catch (RuntimeException e) {
+								throw e;
+							} catch (Exception e) {
+								throw new CompletionException(e);
+							}
+						}
+					}, executor));
+				} catch (RuntimeException e) {
+					rejected = e;
+					break;
+				}
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).join();
+				} catch (CompletionException e) {
+					error = addError(error, sheetsList.get(i), e.getCause() != null ? e.getCause() : e);
+				} catch (CancellationException e) {
+					error = addError(error, sheetsList.get(i), e);
+				}
+			}
+			if (rejected != null)
+				error = addError(error, sheetsList.get(futures.size()), rejected);
+		} finally {
+			for (Sheets sheets : sheetsList) {
+				sheets.setSharedLock(null);
+			}
+		}
+		if (error != null)
+			throw error;
+		return workbooks;
+	}
+
+	/**
+	 * 记录任务的异常
+	 *
+	 * @param error  已记录的异常，为null时创建
+	 * @param sheets 任务填充的Sheet
+	 * @param cause  任务的异常
+	 * @return 记录后的异常，第一个失败的任务的异常之后的作为被抑制的异常
+	 */
+	private static RuntimeException addError(@Nullable RuntimeException error, Sheets sheets, Throwable cause) {
+		if (error == null)
+			return new RuntimeException("生成Sheet失败：" + sheets.getSheet().getSheetName(), cause);
+		error.addSuppressed(cause);
+		return error;
+	}
+}
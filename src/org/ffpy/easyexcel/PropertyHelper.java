@@ -3,14 +3,49 @@ package org.ffpy.easyexcel;
 import com.sun.istack.internal.Nullable;
 
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * 属性辅助类
+ * <p>getter和setter在创建时通过{@link LambdaMetafactory}生成访问器，之后的读写和普通方法调用一样快，
+ * double、boolean等基本类型的属性还有不装箱的读取方法。
+ * 无法生成访问器时（如Bean类型不可访问或者不在当前类加载器中）退回到反射调用
+ * <p>有编译时生成的{@link RowBinding}的Bean只记录属性名和类型，读写由绑定完成
  */
 class PropertyHelper {
-	private PropertyDescriptor propertyDescriptor;
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/** 属性描述符，只有属性名和类型时为null */
+	private final PropertyDescriptor propertyDescriptor;
+	/** 属性名 */
+	private final String name;
+	/** 属性类型 */
+	private final Class<?> type;
+	/** 属性读取器，没有getter方法时为null */
+	private final Function<Object, Object> getter;
+	/** 属性写入器，没有setter方法时为null */
+	private final BiConsumer<Object, Object> setter;
+	/** double属性的读取器 */
+	private final ToDoubleFunction<Object> doubleGetter;
+	/** boolean属性的读取器 */
+	private final Predicate<Object> booleanGetter;
+	/** int属性的读取器 */
+	private final ToIntFunction<Object> intGetter;
+	/** long属性的读取器 */
+	private final ToLongFunction<Object> longGetter;
 
 	/**
 	 * 创建一个PropertyHelper对象
@@ -22,18 +57,58 @@ class PropertyHelper {
 		return new PropertyHelper(propertyDescriptor);
 	}
 
+	/**
+	 * 创建只有属性名和类型的PropertyHelper对象，没有访问器，属性的读写由生成的绑定完成
+	 *
+	 * @param name 属性名
+	 * @param type 属性类型
+	 * @return PropertyHelper对象
+	 */
+	static PropertyHelper of(String name, Class<?> type) {
+		return new PropertyHelper(name, type);
+	}
+
 	/**
 	 * @param propertyDescriptor 属性描述符
 	 */
 	private PropertyHelper(PropertyDescriptor propertyDescriptor) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.name = propertyDescriptor.getName();
+		this.type = propertyDescriptor.getPropertyType();
+
+		Method readMethod = propertyDescriptor.getReadMethod();
+		Method writeMethod = propertyDescriptor.getWriteMethod();
+
+		getter = readMethod == null ? null : createGetter(readMethod);
+		setter = writeMethod == null ? null : createSetter(writeMethod);
+		doubleGetter = readMethod != null && type == double.class ? createDoubleGetter(readMethod) : null;
+		booleanGetter = readMethod != null && type == boolean.class ? createBooleanGetter(readMethod) : null;
+		intGetter = readMethod != null && type == int.class ? createIntGetter(readMethod) : null;
+		longGetter = readMethod != null && type == long.class ? createLongGetter(readMethod) : null;
+	}
+
+	/**
+	 * @param name 属性名
+	 * @param type 属性类型
+	 */
+	private PropertyHelper(String name, Class<?> type) {
+		this.propertyDescriptor = null;
+		this.name = name;
+		this.type = type;
+		getter = null;
+		setter = null;
+		doubleGetter = null;
+		booleanGetter = null;
+		intGetter = null;
+		longGetter = null;
 	}
 
 	/**
 	 * 获取属性描述符
 	 *
-	 * @return 属性描述符
+	 * @return 属性描述符，只有属性名和类型时返回null
 	 */
+	@Nullable
 	public PropertyDescriptor getPropertyDescriptor() {
 		return propertyDescriptor;
 	}
@@ -42,38 +117,74 @@ class PropertyHelper {
 	 * 获取属性的值
 	 *
 	 * @param bean Bean对象类型
-	 * @param name 属性名
 	 * @param <T>  属性类型
 	 * @return 属性的值
 	 */
 	public <T> T getProperty(Object bean) {
-		try {
-			Method method = propertyDescriptor.getReadMethod();
-			if (method == null)
-				throw new IllegalArgumentException(getName() + "没有getter方法");
-			//noinspection unchecked
-			return (T) method.invoke(bean);
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			throw new RuntimeException(e);
-		}
+		if (getter == null)
+			throw new IllegalArgumentException(getName() + "没有getter方法");
+		//noinspection unchecked
+		return (T) getter.apply(bean);
+	}
+
+	/**
+	 * 获取double属性的值，不装箱
+	 *
+	 * @param bean Bean对象类型
+	 * @return 属性的值
+	 */
+	public double getDouble(Object bean) {
+		if (doubleGetter != null)
+			return doubleGetter.applyAsDouble(bean);
+		return this.<Number>getProperty(bean).doubleValue();
+	}
+
+	/**
+	 * 获取boolean属性的值，不装箱
+	 *
+	 * @param bean Bean对象类型
+	 * @return 属性的值
+	 */
+	public boolean getBoolean(Object bean) {
+		if (booleanGetter != null)
+			return booleanGetter.test(bean);
+		return this.<Boolean>getProperty(bean);
+	}
+
+	/**
+	 * 获取int属性的值，不装箱
+	 *
+	 * @param bean Bean对象类型
+	 * @return 属性的值
+	 */
+	public int getInt(Object bean) {
+		if (intGetter != null)
+			return intGetter.applyAsInt(bean);
+		return this.<Number>getProperty(bean).intValue();
+	}
+
+	/**
+	 * 获取long属性的值，不装箱
+	 *
+	 * @param bean Bean对象类型
+	 * @return 属性的值
+	 */
+	public long getLong(Object bean) {
+		if (longGetter != null)
+			return longGetter.applyAsLong(bean);
+		return this.<Number>getProperty(bean).longValue();
 	}
 
 	/**
 	 * 设置属性的值
 	 *
 	 * @param bean  Bean对象类型
-	 * @param name  属性名
 	 * @param value 属性值
 	 */
 	public void setProperty(Object bean, @Nullable Object value) {
-		try {
-			Method method = propertyDescriptor.getWriteMethod();
-			if (method == null)
-				throw new IllegalArgumentException(getName() + "没有setter方法");
-			method.invoke(bean, value);
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			throw new RuntimeException(e);
-		}
+		if (setter == null)
+			throw new IllegalArgumentException(getName() + "没有setter方法");
+		setter.accept(bean, value);
 	}
 
 	/**
@@ -82,7 +193,7 @@ class PropertyHelper {
 	 * @return 属性类型
 	 */
 	public Class<?> getPropertyType() {
-		return propertyDescriptor.getPropertyType();
+		return type;
 	}
 
 	/**
@@ -91,6 +202,183 @@ class PropertyHelper {
 	 * @return 属性名
 	 */
 	public String getName() {
-		return propertyDescriptor.getName();
+		return name;
+	}
+
+	/**
+	 * 创建属性读取器
+	 *
+	 * @param method getter方法
+	 * @return 属性读取器
+	 */
+	private static Function<Object, Object> createGetter(final Method method) {
+		Function<Object, Object> getter = compile(Function.class, "apply",
+			MethodType.methodType(Object.class, Object.class), method);
+		if (getter != null) return getter;
+		return new Function<Object, Object>() {
+			@Override
+			public Object apply(Object bean) {
+				return invoke(method, bean);
+			}
+		};
+	}
+
+	/**
+	 * 创建属性写入器
+	 *
+	 * @param method setter方法
+	 * @return 属性写入器
+	 */
+	private static BiConsumer<Object, Object> createSetter(final Method method) {
+		BiConsumer<Object, Object> setter = compile(BiConsumer.class, "accept",
+			MethodType.methodType(void.class, Object.class, Object.class), method);
+		if (setter != null) return setter;
+		return new BiConsumer<Object, Object>() {
+			@Override
+			public void accept(Object bean, Object value) {
+				invoke(method, bean, value);
+			}
+		};
+	}
+
+	private static ToDoubleFunction<Object> createDoubleGetter(final Method method) {
+		ToDoubleFunction<Object> getter = compile(ToDoubleFunction.class, "applyAsDouble",
+			MethodType.methodType(double.class, Object.class), method);
+		if (getter != null) return getter;
+		return new ToDoubleFunction<Object>() {
+			@Override
+			public double applyAsDouble(Object bean) {
+				return (Double) invoke(method, bean);
+			}
+		};
+	}
+
+	private static Predicate<Object> createBooleanGetter(final Method method) {
+		Predicate<Object> getter = compile(Predicate.class, "test",
+			MethodType.methodType(boolean.class, Object.class), method);
+		if (getter != null) return getter;
+		return new Predicate<Object>() {
+			@Override
+			public boolean test(Object bean) {
+				return (Boolean) invoke(method, bean);
+			}
+		};
+	}
+
+	private static ToIntFunction<Object> createIntGetter(final Method method) {
+		ToIntFunction<Object> getter = compile(ToIntFunction.class, "applyAsInt",
+			MethodType.methodType(int.class, Object.class), method);
+		if (getter != null) return getter;
+		return new ToIntFunction<Object>() {
+			@Override
+			public int applyAsInt(Object bean) {
+				return (Integer) invoke(method, bean);
+			}
+		};
+	}
+
+	private static ToLongFunction<Object> createLongGetter(final Method method) {
+		ToLongFunction<Object> getter = compile(ToLongFunction.class, "applyAsLong",
+			MethodType.methodType(long.class, Object.class), method);
+		if (getter != null) return getter;
+		return new ToLongFunction<Object>() {
+			@Override
+			public long applyAsLong(Object bean) {
+				return (Long) invoke(method, bean);
+			}
+		};
+	}
+
+	/**
+	 * 为方法生成函数式接口的实现
+	 *
+	 * @param interfaceClass 函数式接口
+	 * @param interfaceName  接口方法名
+	 * @param interfaceType  接口方法类型（擦除后的）
+	 * @param method         实现方法
+	 * @param <T>            函数式接口类型
+	 * @return 接口实现，无法生成时返回null
+	 */
+	private static <T> T compile(Class<?> interfaceClass, String interfaceName,
+								 MethodType interfaceType, Method method) {
+		if (!isVisible(method.getDeclaringClass()))
+			return null;
+		for (Class<?> c : method.getParameterTypes()) {
+			if (!isVisible(c)) return null;
+		}
+		if (!isVisible(method.getReturnType()))
+			return null;
+
+		CallSite site;
+		try {
+			MethodHandle handle = LOOKUP.unreflect(method);
+			// 接口方法的参数或返回值为Object时，基本类型需要装箱
+			MethodType instantiatedType = handle.type();
+			for (int i = 0; i < interfaceType.parameterCount(); i++) {
+				if (!interfaceType.parameterType(i).isPrimitive())
+					instantiatedType = instantiatedType.changeParameterType(i, wrap(instantiatedType.parameterType(i)));
+			}
+			if (!interfaceType.returnType().isPrimitive())
+				instantiatedType = instantiatedType.changeReturnType(wrap(instantiatedType.returnType()));
+
+			site = LambdaMetafactory.metafactory(LOOKUP, interfaceName,
+				MethodType.methodType(interfaceClass), interfaceType, handle, instantiatedType);
+		} catch (ReflectiveOperationException | LambdaConversionException e) {
+			return null;
+		}
+
+		try {
+			//noinspection unchecked
+			return (T) site.getTarget().invoke();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("生成" + method + "的访问器失败", e);
+		}
+	}
+
+	/**
+	 * 获取基本类型对应的包装类型
+	 *
+	 * @param type 类型
+	 * @return 包装类型，不是基本类型时返回原类型
+	 */
+	private static Class<?> wrap(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) return type;
+		return MethodType.methodType(type).wrap().returnType();
+	}
+
+	/**
+	 * 判断类型能否通过当前类加载器访问，生成的访问器由当前类加载器加载
+	 *
+	 * @param type 类型
+	 * @return true为可以访问
+	 */
+	private static boolean isVisible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) return true;
+		try {
+			return Class.forName(type.getName(), false, PropertyHelper.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 通过反射调用方法
+	 *
+	 * @param method 方法
+	 * @param bean   Bean对象
+	 * @param args   参数
+	 * @return 返回值
+	 */
+	private static Object invoke(Method method, Object bean, Object... args) {
+		try {
+			return method.invoke(bean, args);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new RuntimeException(e);
+		}
 	}
 }
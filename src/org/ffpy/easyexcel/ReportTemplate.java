@@ -0,0 +1,304 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 报表模板
+ * <p>标题、表头、合并区域和样式只在创建模板时生成一次，保存为各Sheet的单元格、合并区域、列宽和样式建造者，
+ * 之后每次生成报表时在新的工作簿中按顺序重放这些内容，比反序列化整个工作簿快得多，
+ * 重放时创建的样式会登记到样式池中，不需要再创建。
+ * 模板创建后不再修改，可以在多个线程中同时使用
+ * <p>只保存单元格的值、公式和通过样式池创建的样式，富文本的格式和其它方式创建的样式不会复制
+ *
+ * <pre>
+ * private static final ReportTemplate SCORE = ReportTemplate.of(WorkbookType.HSSF, helper -&gt; helper
+ *         .title(centerBoldStyle, "成绩表")
+ *         .header(centerBoldStyle, "学号", "姓名", "课程", "成绩", "日期"));
+ *
+ * SCORE.helper().body(centerStyle, getData()).write(file);
+ * </pre>
+ */
+public class ReportTemplate {
+	/** 工作簿类型 */
+	private final WorkbookType type;
+	/** 样式池中的样式建造者，按样式序号排列 */
+	private final CellStyleBuilder[] styles;
+	/** 各Sheet的固定内容 */
+	private final SheetTemplate[] sheets;
+
+	private ReportTemplate(WorkbookType type, CellStyleBuilder[] styles, SheetTemplate[] sheets) {
+		this.type = type;
+		this.styles = styles;
+		this.sheets = sheets;
+	}
+
+	/**
+	 * 创建模板
+	 * <p>在第一个Sheet上调用辅助者设置标题、表头等固定内容，需要提前登记的样式
+	 * 可以通过{@link Workbooks#getCellStyle(CellStyleBuilder)}创建
+	 *
+	 * @param type     工作簿类型
+	 * @param skeleton 设置固定内容
+	 * @return 模板
+	 */
+	public static ReportTemplate of(WorkbookType type, Consumer<ExcelHelper> skeleton) {
+		// 流式工作簿的行刷新后不能再访问，固定内容使用普通的工作簿生成
+		try (Workbooks workbooks = Excels.createWorkbook(type == WorkbookType.HSSF ? WorkbookType.HSSF : WorkbookType.XSSF)) {
+			ExcelHelper helper = new ExcelHelper(workbooks);
+			skeleton.accept(helper);
+			helper.beforeWrite();
+
+			// 样式按序号排列，重放时按相同的顺序创建
+			List<Map.Entry<CellStyleBuilder, Short>> entries = new ArrayList<>(
+				workbooks.getStylePool().styleIndexes().entrySet());
+			entries.sort(Map.Entry.comparingByValue());
+			CellStyleBuilder[] styles = new CellStyleBuilder[entries.size()];
+			Map<Short, Integer> styleOrder = new HashMap<>();
+			for (int i = 0; i < styles.length; i++) {
+				styles[i] = entries.get(i).getKey();
+				styleOrder.put(entries.get(i).getValue(), i);
+			}
+
+			Workbook workbook = workbooks.getWorkbook();
+			SheetTemplate[] sheets = new SheetTemplate[workbook.getNumberOfSheets()];
+			for (int i = 0; i < sheets.length; i++) {
+				sheets[i] = new SheetTemplate(workbook.getSheetAt(i), styleOrder);
+			}
+			return new ReportTemplate(type, styles, sheets);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 从模板复制出新的工作簿
+	 *
+	 * @return 工作簿实例，样式已经登记
+	 */
+	public Workbooks newWorkbooks() {
+		// 流式工作簿的固定内容写在底层的.xlsx工作簿中，表身从固定内容之后开始追加
+		Workbook workbook = type == WorkbookType.HSSF ? new HSSFWorkbook() : new XSSFWorkbook();
+		CellStylePool pool = new CellStylePool(workbook);
+		CellStyle[] cellStyles = new CellStyle[styles.length];
+		for (int i = 0; i < styles.length; i++) {
+			cellStyles[i] = pool.get(styles[i]);
+		}
+		for (SheetTemplate sheet : sheets) {
+			sheet.replay(workbook.createSheet(sheet.name), cellStyles);
+		}
+
+		if (type == WorkbookType.SXSSF) {
+			SXSSFWorkbook streaming = new StreamingWorkbook((XSSFWorkbook) workbook, SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+			streaming.setCompressTempFiles(true);
+			workbook = streaming;
+		}
+		Workbooks workbooks = new Workbooks(workbook);
+		workbooks.getStylePool().preload(pool.styleIndexes(), pool.fontIndexes());
+		return workbooks;
+	}
+
+	/**
+	 * 从模板复制出新的工作簿，在第一个Sheet的固定内容之后继续填写
+	 *
+	 * @return Excel表格辅助者
+	 */
+	public ExcelHelper helper() {
+		Workbooks workbooks = newWorkbooks();
+		return new ExcelHelper(workbooks, workbooks.getSheet(0));
+	}
+
+	/**
+	 * Sheet的固定内容
+	 */
+	private static class SheetTemplate {
+		/** Sheet名 */
+		final String name;
+		/** 列宽 */
+		final int[] columnWidths;
+		/** 合并区域 */
+		final CellRangeAddress[] mergedRegions;
+		/** 有内容的行 */
+		final RowTemplate[] rows;
+
+		/**
+		 * 读取Sheet的固定内容，末尾的空行不保存，使报表内容紧接在固定内容之后
+		 *
+		 * @param sheet      Sheet
+		 * @param styleOrder 样式序号 -> 样式建造者的位置
+		 */
+		SheetTemplate(Sheet sheet, Map<Short, Integer> styleOrder) {
+			this.name = sheet.getSheetName();
+
+			int lastContentRow = Sheets.lastContentRow(sheet);
+			List<RowTemplate> rows = new ArrayList<>();
+			int maxColNum = 0;
+			for (Row row : sheet) {
+				if (row.getRowNum() > lastContentRow) break;
+				rows.add(new RowTemplate(row, styleOrder));
+				maxColNum = Math.max(maxColNum, row.getLastCellNum());
+			}
+			this.rows = rows.toArray(new RowTemplate[0]);
+
+			List<CellRangeAddress> regions = sheet.getMergedRegions();
+			this.mergedRegions = regions.toArray(new CellRangeAddress[0]);
+			for (CellRangeAddress region : regions) {
+				maxColNum = Math.max(maxColNum, region.getLastColumn() + 1);
+			}
+
+			this.columnWidths = new int[maxColNum];
+			for (int i = 0; i < maxColNum; i++) {
+				columnWidths[i] = sheet.getColumnWidth(i);
+			}
+		}
+
+		/**
+		 * 在新的Sheet中写入固定内容
+		 *
+		 * @param sheet  新的Sheet
+		 * @param styles 样式，与模板中的样式建造者一一对应
+		 */
+		void replay(Sheet sheet, CellStyle[] styles) {
+			if (sheet instanceof XSSFSheet) {
+				// XSSFSheet.setColumnWidth每次都要整理整个列定义，新的Sheet没有列定义，直接按顺序添加
+				CTWorksheet worksheet = ((XSSFSheet) sheet).getCTWorksheet();
+				CTCols cols = worksheet.sizeOfColsArray() == 0 ? worksheet.addNewCols() : worksheet.getColsArray(0);
+				for (int i = 0; i < columnWidths.length; i++) {
+					CTCol col = cols.addNewCol();
+					col.setMin(i + 1);
+					col.setMax(i + 1);
+					col.setWidth(columnWidths[i] / 256.0);
+					col.setCustomWidth(true);
+				}
+			} else {
+				for (int i = 0; i < columnWidths.length; i++) {
+					sheet.setColumnWidth(i, columnWidths[i]);
+				}
+			}
+			for (RowTemplate row : rows) {
+				row.replay(sheet, styles);
+			}
+			for (CellRangeAddress region : mergedRegions) {
+				sheet.addMergedRegionUnsafe(region.copy());
+			}
+		}
+	}
+
+	/**
+	 * 行的固定内容
+	 */
+	private static class RowTemplate {
+		/** 行号 */
+		final int index;
+		/** 行高，使用默认行高时为-1 */
+		final short height;
+		/** 列号 */
+		final int[] columns;
+		/** 单元格类型 */
+		final CellType[] types;
+		/** 单元格的值，公式单元格为公式 */
+		final Object[] values;
+		/** 样式建造者的位置，不是通过样式池创建的样式为-1 */
+		final int[] styles;
+
+		RowTemplate(Row row, Map<Short, Integer> styleOrder) {
+			this.index = row.getRowNum();
+			this.height = row.getZeroHeight() || row.getHeight() != row.getSheet().getDefaultRowHeight()
+				? row.getHeight() : -1;
+
+			int size = row.getPhysicalNumberOfCells();
+			columns = new int[size];
+			types = new CellType[size];
+			values = new Object[size];
+			styles = new int[size];
+			int i = 0;
+			for (Cell cell : row) {
+				columns[i] = cell.getColumnIndex();
+				types[i] = cell.getCellTypeEnum();
+				switch (types[i]) {
+					case STRING:
+						values[i] = cell.getStringCellValue();
+						break;
+					case NUMERIC:
+						values[i] = cell.getNumericCellValue();
+						break;
+					case BOOLEAN:
+						values[i] = cell.getBooleanCellValue();
+						break;
+					case FORMULA:
+						values[i] = cell.getCellFormula();
+						break;
+					default:
+						types[i] = CellType.BLANK;
+						break;
+				}
+				Integer style = styleOrder.get(cell.getCellStyle().getIndex());
+				styles[i] = style == null ? -1 : style;
+				i++;
+			}
+		}
+
+		/**
+		 * 在新的Sheet中写入行
+		 *
+		 * @param sheet  新的Sheet
+		 * @param styles 样式，与模板中的样式建造者一一对应
+		 */
+		void replay(Sheet sheet, CellStyle[] styles) {
+			Row row = sheet.createRow(index);
+			if (height >= 0)
+				row.setHeight(height);
+			for (int i = 0; i < columns.length; i++) {
+				Cell cell = row.createCell(columns[i]);
+				switch (types[i]) {
+					case STRING:
+						if (cell instanceof XSSFCell) {
+							// 共享字符串表每次加入都要序列化富文本来查重，固定内容直接写为内联字符串
+							CTCell ctCell = ((XSSFCell) cell).getCTCell();
+							ctCell.setT(STCellType.INLINE_STR);
+							ctCell.addNewIs().setT((String) values[i]);
+						} else {
+							cell.setCellValue((String) values[i]);
+						}
+						break;
+					case NUMERIC:
+						cell.setCellValue((Double) values[i]);
+						break;
+					case BOOLEAN:
+						cell.setCellValue((Boolean) values[i]);
+						break;
+					case FORMULA:
+						cell.setCellFormula((String) values[i]);
+						break;
+					default:
+						break;
+				}
+				if (this.styles[i] >= 0)
+					cell.setCellStyle(styles[this.styles[i]]);
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.CellStyle;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 查询结果的行写入计划
+ * <p>创建时读取一次{@link ResultSetMetaData}，按照每一列的SQL类型确定读取方法和单元格类型，
+ * 写入每一行时直接从游标读取基本类型的值，不创建中间对象。值为NULL的列只设置样式
+ */
+class ResultSetRowWriter {
+    /** 各列的写入器 */
+    private final Column[] columns;
+
+    /**
+     * @param workbooks 工作簿
+     * @param metaData  查询结果的元数据
+     * @param style     样式，日期类型的列使用样式的日期格式，其它列去掉日期格式
+     * @throws SQLException 读取元数据失败
+     */
+    ResultSetRowWriter(Workbooks workbooks, ResultSetMetaData metaData, @Nullable CellStyleBuilder style)
+            throws SQLException {
+        CellStyle cellStyle = null;
+        CellStyle dateStyle = null;
+        if (style != null) {
+            cellStyle = workbooks.getCellStyle(style.dateFormat(null));
+            dateStyle = workbooks.getCellStyle(style);
+        }
+
+        columns = new Column[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(metaData.getColumnType(i + 1), i + 1, cellStyle, dateStyle);
+        }
+    }
+
+    /**
+     * 写入游标当前所在的行，写入后跳到下一行
+     *
+     * @param sheets    Sheet
+     * @param resultSet 查询结果
+     * @throws SQLException 读取数据失败
+     */
+    public void write(Sheets sheets, ResultSet resultSet) throws SQLException {
+        for (Column column : columns) {
+            if (column.style != null)
+                sheets.style(column.style);
+            column.write(sheets, resultSet);
+            sheets.nextCell();
+        }
+        sheets.nextRow();
+    }
+
+    /**
+     * 根据SQL类型创建列写入器
+     *
+     * @param sqlType   SQL类型，参考{@link Types}
+     * @param index     列号，从1开始
+     * @param cellStyle 普通列的样式
+     * @param dateStyle 日期列的样式
+     * @return 列写入器
+     */
+    private static Column createColumn(int sqlType, int index, CellStyle cellStyle, CellStyle dateStyle) {
+        switch (sqlType) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return new Column(index, cellStyle) {
+                    @Override
+                    void write(Sheets sheets, ResultSet resultSet) throws SQLException {
+                        boolean value = resultSet.getBoolean(index);
+                        if (!resultSet.wasNull())
+                            sheets.value(value);
+                    }
+                };
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return new Column(index, cellStyle) {
+                    @Override
+                    void write(Sheets sheets, ResultSet resultSet) throws SQLException {
+                        double value = resultSet.getDouble(index);
+                        if (!resultSet.wasNull())
+                            sheets.value(value);
+                    }
+                };
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return new Column(index, dateStyle) {
+                    @Override
+                    void write(Sheets sheets, ResultSet resultSet) throws SQLException {
+                        Timestamp value = resultSet.getTimestamp(index);
+                        if (value != null)
+                            sheets.value(value);
+                    }
+                };
+            default:
+                return new Column(index, cellStyle) {
+                    @Override
+                    void write(Sheets sheets, ResultSet resultSet) throws SQLException {
+                        String value = resultSet.getString(index);
+                        if (value != null)
+                            sheets.value(value);
+                    }
+                };
+        }
+    }
+
+    /**
+     * 列写入器
+     */
+    private static abstract class Column {
+        /** 列号，从1开始 */
+        final int index;
+        /** 样式，为null时不设置样式 */
+        final CellStyle style;
+
+        Column(int index, CellStyle style) {
+            this.index = index;
+            this.style = style;
+        }
+
+        /**
+         * 把游标当前行的列值写入到当前单元格
+         *
+         * @param sheets    Sheet
+         * @param resultSet 查询结果
+         * @throws SQLException 读取数据失败
+         */
+        abstract void write(Sheets sheets, ResultSet resultSet) throws SQLException;
+    }
+}
@@ -0,0 +1,143 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Bean与行的绑定，由{@link ExcelColumnProcessor}在编译时为标记了{@link ExcelColumn}的Bean生成
+ * <p>生成的类与Bean在同一个包中，类名为Bean的类名（内部类的各层类名以"_"连接）加上"_ExcelBinding"。
+ * 绑定只负责取值、赋值和创建对象，每一列的单元格类型、转换器和样式仍然由行计划在创建时确定
+ *
+ * @param <T> Bean类型
+ */
+public interface RowBinding<T> {
+	/** 生成的类名的后缀 */
+	String SUFFIX = "_ExcelBinding";
+
+	/**
+	 * 获取各列对应的属性名
+	 *
+	 * @return 属性名，按列的顺序排列
+	 */
+	String[] properties();
+
+	/**
+	 * 获取各列的定义，有列定义时运行时不再通过反射读取Bean的属性和注解
+	 *
+	 * @return 各列的定义，与{@link #properties()}一一对应，较早版本生成的绑定没有列定义，返回null
+	 */
+	@Nullable
+	default Column[] columns() {
+		return null;
+	}
+
+	/**
+	 * 创建Bean对象
+	 *
+	 * @return Bean对象
+	 */
+	T newInstance();
+
+	/**
+	 * 按列的顺序把Bean的各属性写入到单元格
+	 *
+	 * @param bean  Bean对象
+	 * @param cells 单元格
+	 */
+	void write(T bean, Cells cells);
+
+	/**
+	 * 设置属性的值
+	 *
+	 * @param bean  Bean对象
+	 * @param index 属性在{@link #properties()}中的下标
+	 * @param value 已转换为属性类型的值，不为null
+	 */
+	void set(T bean, int index, Object value);
+
+	/**
+	 * 列的定义，由{@link ExcelColumnProcessor}根据字段和{@link ExcelColumn}生成
+	 */
+	final class Column {
+		/** 属性名 */
+		private final String name;
+		/** 属性类型 */
+		private final Class<?> type;
+		/** 表头，为空时使用属性名 */
+		private final String header;
+		/** 数据格式，为空时不指定数据格式 */
+		private final String format;
+		/** 列宽（字符数），小于0时不设置列宽 */
+		private final int width;
+
+		/**
+		 * @param name   属性名
+		 * @param type   属性类型
+		 * @param header 表头，为空时使用属性名
+		 * @param format 数据格式，为空时不指定数据格式
+		 * @param width  列宽（字符数），小于0时不设置列宽
+		 */
+		public Column(String name, Class<?> type, String header, String format, int width) {
+			this.name = name;
+			this.type = type;
+			this.header = header;
+			this.format = format;
+			this.width = width;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Class<?> getType() {
+			return type;
+		}
+
+		public String getHeader() {
+			return header;
+		}
+
+		public String getFormat() {
+			return format;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+	}
+
+	/**
+	 * 一行中的单元格，每写入一个值跳到下一列
+	 */
+	interface Cells {
+
+		void value(@Nullable String value);
+
+		void value(@Nullable RichTextString value);
+
+		void value(double value);
+
+		/**
+		 * 写入整数，CSV按原值写入，不经过double转换
+		 *
+		 * @param value 值
+		 */
+		void value(long value);
+
+		void value(boolean value);
+
+		void value(@Nullable Date value);
+
+		void value(@Nullable Calendar value);
+
+		/**
+		 * 写入需要转换器转换的值
+		 *
+		 * @param value 属性的值
+		 */
+		void value(@Nullable Object value);
+	}
+}
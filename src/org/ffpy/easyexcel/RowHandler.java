@@ -0,0 +1,26 @@
+package org.ffpy.easyexcel;
+
+/**
+ * 读取表格时的行处理器
+ */
+interface RowHandler {
+
+    /**
+     * 处理一行
+     *
+     * @param rowIndex 行号，从0开始
+     * @param cells    各列的值，下标为列号，值为String、Double、Boolean、Date或null（空单元格）
+     * @return true为继续读取，false为停止读取
+     */
+    boolean row(int rowIndex, Object[] cells);
+
+    /**
+     * 判断是否需要读取某一列，不需要的列不会转换为对象，在行数据中为null
+     *
+     * @param column 列号，从0开始
+     * @return true为需要读取
+     */
+    default boolean acceptColumn(int column) {
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package org.ffpy.easyexcel;
+
+/**
+ * 填充Sheet的任务
+ */
+public interface SheetTask {
+
+	/**
+	 * 填充Sheet
+	 *
+	 * @param sheets Sheet
+	 * @throws Exception 填充失败
+	 */
+	void fill(Sheets sheets) throws Exception;
+}
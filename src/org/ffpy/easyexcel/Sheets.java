@@ -1,48 +1,121 @@
 package org.ffpy.easyexcel;
 
 import com.sun.istack.internal.Nullable;
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
-
-import java.text.SimpleDateFormat;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.stream.Stream;
 
 /**
  * Excel Sheet的辅助类
  */
 public class Sheets {
+    /** 抽样调整列宽的随机种子 */
+    private static final long SAMPLE_SEED = 0x5EEDL;
+    /** 一天的毫秒数 */
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    /** 1970-01-01在Excel的1900日期系统中的序数 */
+    private static final double EXCEL_EPOCH_DAYS = 25569;
+    /** 1970-01-01在Excel的1904日期系统中的序数 */
+    private static final double EXCEL_1904_EPOCH_DAYS = 24107;
+
     /** 工作簿 */
     private Workbooks workbooks;
     /** Sheet实例 */
-    private HSSFSheet sheet;
+    private Sheet sheet;
     /** 当前行 */
-    private HSSFRow curRow;
+    private Row curRow;
     /** 当前单元格 */
-    private HSSFCell curCell;
+    private Cell curCell;
     /** 当前行号 */
     private int curRowIndex = -1;
     /** 当前列号 */
     private int curColIndex = -1;
     /** 最大列号 */
     private int maxColNum = 0;
+    /** 合并单元格索引 */
+    private final MergedRegions mergedRegions = new MergedRegions();
+    /** 已写入的列宽 */
+    private final ColumnWidths columnWidths = new ColumnWidths();
+    /** 是否所有单元格都通过当前对象写入，是则自动调整列宽时不需要扫描整个Sheet */
+    private final boolean widthTracked;
+    /** 工作簿共享数据（字符串表、样式表）的锁，并行生成Sheet时使用，为null时不加锁 */
+    private Object sharedLock;
+    /** 最近使用的样式建造者 */
+    private CellStyleBuilder lastStyleBuilder;
+    /** 最近使用的样式 */
+    private CellStyle lastStyle;
+    /** 字符串字典，没有设置共享字符串的列时为null */
+    private StringDictionary stringDictionary;
+    /** 是否由当前对象把字典中的序号写入单元格（.xlsx），流式工作簿在刷新行时写入 */
+    private boolean writeSharedIndex;
 
     /**
      * @param workbooks 工作簿
      * @param sheet     Sheet
      */
-    Sheets(Workbooks workbooks, HSSFSheet sheet) {
+    Sheets(Workbooks workbooks, Sheet sheet) {
         this.workbooks = workbooks;
         this.sheet = sheet;
+        this.widthTracked = sheet.getPhysicalNumberOfRows() == 0;
+        if (sheet instanceof SXSSFSheet) {
+            // 基于模板的流式Sheet，模板中的行已经不能再修改，从模板的最后一行之后开始追加
+            SXSSFWorkbook workbook = (SXSSFWorkbook) sheet.getWorkbook();
+            Sheet template = workbook.getXSSFWorkbook().getSheetAt(workbook.getSheetIndex(sheet));
+            if (template.getPhysicalNumberOfRows() > 0)
+                curRowIndex = template.getLastRowNum();
+        } else if (!widthTracked) {
+            // 已有内容的Sheet从最后一个非空行之后开始追加
+            curRowIndex = lastContentRow(sheet);
+        }
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            mergedRegions.addExisting(region);
+        }
         nextRow();
     }
 
+    /**
+     * 查找最后一个有内容的行，末尾只有空白单元格的行会被覆盖
+     *
+     * @param sheet Sheet
+     * @return 行号，没有时返回-1
+     */
+    static int lastContentRow(Sheet sheet) {
+        for (int i = sheet.getLastRowNum(); i >= 0; i--) {
+            Row row = sheet.getRow(i);
+            if (row == null) continue;
+            for (Cell cell : row) {
+                if (cell.getCellTypeEnum() != CellType.BLANK)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * 获取工作簿
      *
@@ -57,7 +130,7 @@ public class Sheets {
      *
      * @return Sheet
      */
-    public HSSFSheet getSheet() {
+    public Sheet getSheet() {
         return sheet;
     }
 
@@ -66,7 +139,7 @@ public class Sheets {
      *
      * @return 当前行
      */
-    public HSSFRow getCurRow() {
+    public Row getCurRow() {
         return curRow;
     }
 
@@ -75,10 +148,28 @@ public class Sheets {
      *
      * @return 当前单元格
      */
-    public HSSFCell getCurCell() {
+    public Cell getCurCell() {
         return curCell;
     }
 
+    /**
+     * 获取当前行号
+     *
+     * @return 当前行号
+     */
+    public int getCurRowIndex() {
+        return curRowIndex;
+    }
+
+    /**
+     * 获取当前列号
+     *
+     * @return 当前列号
+     */
+    public int getCurColIndex() {
+        return curColIndex;
+    }
+
     /**
      * 获取最大列数
      *
@@ -90,15 +181,23 @@ public class Sheets {
 
     /**
      * 合并单元格
+     * <p>合并区域需要通过此方法添加，直接调用{@link Sheet#addMergedRegion}添加的区域不会被{@link #nextCell()}跳过
      *
      * @param firstRow 起始行号
      * @param lastRow  结束行号（包括）
      * @param firstCol 起始列号
      * @param lastCol  结束列号（包括）
      * @return this
+     * @throws IllegalStateException 与已有的合并区域重叠
      */
     public Sheets mergedRegion(int firstRow, int lastRow, int firstCol, int lastCol) {
-        sheet.addMergedRegion(new CellRangeAddress(firstRow, lastRow, firstCol, lastCol));
+        workbooks.checkWritable();
+        CellRangeAddress region = new CellRangeAddress(firstRow, lastRow, firstCol, lastCol);
+        if (region.getNumberOfCells() < 2)
+            throw new IllegalArgumentException("合并区域" + region.formatAsString() + "至少需要包含2个单元格");
+        // 重叠检查由索引完成，避免POI每次添加都与所有已有区域比较
+        mergedRegions.add(region);
+        sheet.addMergedRegionUnsafe(region);
         return this;
     }
 
@@ -110,6 +209,7 @@ public class Sheets {
      * @return this
      */
     public Sheets to(int row, int column) {
+        workbooks.checkWritable();
         curRow = sheet.getRow(row);
         if (curRow == null)
             curRow = sheet.createRow(row);
@@ -127,7 +227,7 @@ public class Sheets {
      * @param rowIndex 行号
      * @return 行
      */
-    public HSSFRow getRow(int rowIndex) {
+    public Row getRow(int rowIndex) {
         return sheet.getRow(rowIndex);
     }
 
@@ -138,8 +238,8 @@ public class Sheets {
      * @param colIndex 列号
      * @return 单元格
      */
-    public HSSFCell getCell(int rowIndex, int colIndex) {
-        HSSFRow row = sheet.getRow(rowIndex);
+    public Cell getCell(int rowIndex, int colIndex) {
+        Row row = sheet.getRow(rowIndex);
         if (row == null) return null;
         return row.getCell(colIndex);
     }
@@ -150,6 +250,7 @@ public class Sheets {
      * @return this
      */
     public Sheets nextRow() {
+        workbooks.checkWritable();
         curRow = sheet.createRow(++curRowIndex);
         setCurColIndex(-1);
         nextCell();
@@ -162,33 +263,14 @@ public class Sheets {
      * @return this
      */
     public Sheets nextCell() {
-        setCurColIndex(curColIndex + 1);
-        skipMergedRegion();
+        workbooks.checkWritable();
+        setCurColIndex(mergedRegions.skip(curRowIndex, curColIndex + 1));
         curCell = curRow.getCell(curColIndex);
         if (curCell == null)
             curCell = curRow.createCell(curColIndex);
         return this;
     }
 
-    /**
-     * 跳过合并单元格
-     * <p>如果当前位置在合并单元格的内部，并且不在合并单元格的左上角，
-     * 则跳到合并单元格下一个单元格
-     */
-    private void skipMergedRegion() {
-        for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
-            CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
-            if (curRowIndex <= mergedRegion.getLastRow() &&
-                    curColIndex <= mergedRegion.getLastColumn()) {
-                if ((curRowIndex == mergedRegion.getFirstRow() && curColIndex > mergedRegion.getFirstColumn()) ||
-                        (curRowIndex > mergedRegion.getFirstRow() && curColIndex >= mergedRegion.getFirstColumn())) {
-                    setCurColIndex(mergedRegion.getLastColumn() + 1);
-                    break;
-                }
-            }
-        }
-    }
-
     /**
      * 跳过指定数目的单元格
      *
@@ -196,11 +278,42 @@ public class Sheets {
      * @return this
      */
     public Sheets skipCell(int num) {
+        workbooks.checkWritable();
         setCurColIndex(curColIndex + num);
         nextCell();
         return this;
     }
 
+    /**
+     * 设置所有列的字符串都使用共享字符串，同{@link #sharedStrings(int...)}
+     *
+     * @return this
+     */
+    public Sheets sharedStrings() {
+        workbooks.checkWritable();
+        StringDictionary dictionary = getStringDictionary();
+        if (dictionary != null)
+            dictionary.shareAll();
+        return this;
+    }
+
+    /**
+     * 设置指定列的字符串使用共享字符串，适用于状态、地区等重复值很多的列
+     * <p>重复的字符串在Sheet的字符串字典中只保存一份，并且共用共享字符串表中的同一项，
+     * 写入时不再为每个单元格创建富文本对象。流式工作簿默认使用内联字符串，
+     * 只有设置的列使用共享字符串；.xls的字符串总是保存在共享字符串表中，设置无效
+     *
+     * @param columns 列号
+     * @return this
+     */
+    public Sheets sharedStrings(int... columns) {
+        workbooks.checkWritable();
+        StringDictionary dictionary = getStringDictionary();
+        if (dictionary != null)
+            dictionary.share(columns);
+        return this;
+    }
+
     /**
      * 设置当前单元格的样式
      *
@@ -208,7 +321,10 @@ public class Sheets {
      * @return this
      */
     public Sheets style(CellStyleBuilder style) {
-        curCell.setCellStyle(style.build(sheet.getWorkbook()));
+        workbooks.checkWritable();
+        CellStyle cellStyle = getCellStyle(style);
+        setCellStyle(curCell, cellStyle);
+        updateDateWidth(curCell, cellStyle);
         return this;
     }
 
@@ -218,8 +334,10 @@ public class Sheets {
      * @param style 样式
      * @return this
      */
-    public Sheets style(HSSFCellStyle style) {
-        curCell.setCellStyle(style);
+    public Sheets style(CellStyle style) {
+        workbooks.checkWritable();
+        setCellStyle(curCell, style);
+        updateDateWidth(curCell, style);
         return this;
     }
 
@@ -234,13 +352,16 @@ public class Sheets {
      * @return this
      */
     public Sheets style(CellStyleBuilder style, int firstRow, int lastRow, int firstCol, int lastCol) {
+        workbooks.checkWritable();
+        CellStyle cellStyle = getCellStyle(style);
         for (int r = firstRow; r <= lastRow; r++) {
-            HSSFRow row = sheet.getRow(r);
+            Row row = sheet.getRow(r);
             if (row == null) continue;
             for (int c = firstCol; c <= lastCol; c++) {
-                HSSFCell cell = row.getCell(c);
+                Cell cell = row.getCell(c);
                 if (cell == null) continue;
-                cell.setCellStyle(style.build(sheet.getWorkbook()));
+                setCellStyle(cell, cellStyle);
+                updateDateWidth(cell, cellStyle);
             }
         }
         return this;
@@ -253,7 +374,20 @@ public class Sheets {
      * @return this
      */
     public Sheets value(@Nullable String value) {
-        curCell.setCellValue(value);
+        workbooks.checkWritable();
+        if (writeSharedIndex && value != null && stringDictionary.isShared(curColIndex)
+                && setSharedString(value)) {
+            columnWidths.updateString(curColIndex, value);
+            return this;
+        }
+        if (sharedLock == null) {
+            curCell.setCellValue(value);
+        } else {
+            synchronized (sharedLock) {
+                curCell.setCellValue(value);
+            }
+        }
+        columnWidths.updateString(curColIndex, value);
         return this;
     }
 
@@ -264,7 +398,16 @@ public class Sheets {
      * @return this
      */
     public Sheets value(@Nullable RichTextString value) {
-        curCell.setCellValue(value);
+        workbooks.checkWritable();
+        if (sharedLock == null) {
+            curCell.setCellValue(value);
+        } else {
+            synchronized (sharedLock) {
+                curCell.setCellValue(value);
+            }
+        }
+        if (value != null)
+            columnWidths.updateString(curColIndex, value.getString());
         return this;
     }
 
@@ -275,6 +418,7 @@ public class Sheets {
      * @return this
      */
     public Sheets value(double value) {
+        workbooks.checkWritable();
         curCell.setCellValue(value);
         return this;
     }
@@ -286,7 +430,9 @@ public class Sheets {
      * @return this
      */
     public Sheets value(Date value) {
+        workbooks.checkWritable();
         curCell.setCellValue(value);
+        columnWidths.updateDate(curColIndex, value, getCurCellStyle());
         return this;
     }
 
@@ -297,7 +443,10 @@ public class Sheets {
      * @return this
      */
     public Sheets value(Calendar value) {
+        workbooks.checkWritable();
         curCell.setCellValue(value);
+        if (value != null)
+            columnWidths.updateDate(curColIndex, value.getTime(), getCurCellStyle());
         return this;
     }
 
@@ -308,6 +457,7 @@ public class Sheets {
      * @return this
      */
     public Sheets value(boolean value) {
+        workbooks.checkWritable();
         curCell.setCellValue(value);
         return this;
     }
@@ -627,72 +777,260 @@ public class Sheets {
     /**
      * 按照Bean的字段的顺序设置单元格的值
      *
-     * @param values bean数组
+     * @param values bean集合
+     * @return this
+     */
+    public Sheets values(Iterable<?> values) {
+        return values(null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     * <p>保留List参数的版本，兼容按旧版本编译的代码
+     *
+     * @param values bean集合
      * @return this
      */
     public Sheets values(List<?> values) {
+        return values(null, (Iterable<?>) values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     *
+     * @param values bean迭代器，逐个读取
+     * @return this
+     */
+    public Sheets values(Iterator<?> values) {
+        return values(null, values);
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值
+     *
+     * @param values bean流，逐个读取，不会关闭流
+     * @return this
+     */
+    public Sheets values(Stream<?> values) {
         return values(null, values);
     }
 
     /**
      * 按照Bean的字段的顺序设置单元格的值和样式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
      *
      * @param style      样式
-     * @param values     bean数组
+     * @param values     bean集合
+     * @return this
+     */
+    public Sheets values(@Nullable CellStyleBuilder style, Iterable<?> values) {
+        if (values == null) return this;
+        return values(style, values.iterator());
+    }
+
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     * <p>保留List参数的版本，兼容按旧版本编译的代码
+     *
+     * @param style  样式
+     * @param values bean集合
      * @return this
      */
     public Sheets values(@Nullable CellStyleBuilder style, List<?> values) {
-        if (values == null || values.isEmpty()) return this;
+        return values(style, (Iterable<?>) values);
+    }
 
-        CellStyleBuilder dateStyle = style;
-        if (style != null) {
-            style = CellStyleBuilder.of(style).dateFormat(null);
-        }
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
+     *
+     * @param style  样式
+     * @param values bean迭代器，逐个读取
+     * @return this
+     */
+    public Sheets values(@Nullable CellStyleBuilder style, Iterator<?> values) {
+        return values(style, null, values);
+    }
 
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     * <p>Bean类型取第一个元素的类型，null元素写入空行
+     *
+     * @param style  样式
+     * @param values bean流，逐个读取，不会关闭流
+     * @return this
+     */
+    public Sheets values(@Nullable CellStyleBuilder style, Stream<?> values) {
+        if (values == null) return this;
+        return values(style, values.iterator());
+    }
 
-        Class<?> beanClass = values.get(0).getClass();
-        List<PropertyHelper> propertyHelpers = BeanHelper.of(beanClass).getOrderedProperties();
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     *
+     * @param style     样式
+     * @param beanClass Bean类型，元素可以是它的子类
+     * @param values    bean集合
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> Sheets values(@Nullable CellStyleBuilder style, Class<T> beanClass, Iterable<? extends T> values) {
+        if (values == null) return this;
+        return values(style, beanClass, values.iterator());
+    }
 
-        for (Object o : values) {
-            for (PropertyHelper propertyHelper : propertyHelpers) {
-                if (style != null) {
-                    style(style);
-                }
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     *
+     * @param style     样式
+     * @param beanClass Bean类型，元素可以是它的子类
+     * @param values    bean流，逐个读取，不会关闭流
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> Sheets values(@Nullable CellStyleBuilder style, Class<T> beanClass, Stream<? extends T> values) {
+        if (values == null) return this;
+        return values(style, beanClass, values.iterator());
+    }
 
-                if (propertyHelper.getPropertyType() == String.class) {
-                    String value = propertyHelper.getProperty(o);
-                    value(value);
-                } else if (propertyHelper.getPropertyType() == RichTextString.class) {
-                    RichTextString value = propertyHelper.getProperty(o);
-                    value(value);
-                } else if (propertyHelper.getPropertyType() == double.class) {
-                    double value = propertyHelper.getProperty(o);
-                    value(value);
-                } else if (propertyHelper.getPropertyType() == Date.class) {
-                    Date value = propertyHelper.getProperty(o);
-                    if (dateStyle != null) {
-                        style(dateStyle);
-                    }
-                    value(value);
-                } else if (propertyHelper.getPropertyType() == Calendar.class) {
-                    Calendar value = propertyHelper.getProperty(o);
-                    if (dateStyle != null) {
-                        style(dateStyle);
-                    }
-                    value(value);
-                } else if (propertyHelper.getPropertyType() == boolean.class) {
-                    boolean value = propertyHelper.getProperty(o);
-                    value(value);
-                } else {
-                    throw new RuntimeException("不支持的字段类型：" + propertyHelper.getPropertyType().getName());
-                }
+    /**
+     * 按照Bean的字段的顺序设置单元格的值和样式
+     * <p>逐个读取并写入，不会一次性把所有元素读到内存中，null元素写入空行
+     *
+     * @param style     样式
+     * @param beanClass Bean类型，元素可以是它的子类，为null时取第一个元素的类型
+     * @param values    bean迭代器
+     * @param <T>       Bean类型
+     * @return this
+     */
+    public <T> Sheets values(@Nullable CellStyleBuilder style, @Nullable Class<T> beanClass,
+                             Iterator<? extends T> values) {
+        workbooks.checkWritable();
+        if (values == null) return this;
+
+        BeanRowWriter.RowCells cells = beanClass == null ? null
+                : workbooks.getBeanRowWriter(beanClass, style).cells(this);
+        while (values.hasNext()) {
+            T o = values.next();
+            if (o == null) {
+                nextRow();
+                continue;
+            }
+            if (cells == null)
+                cells = workbooks.getBeanRowWriter(o.getClass(), style).cells(this);
+            cells.write(o);
+        }
+
+        return this;
+    }
+
+    /**
+     * 从当前单元格开始按列写入整块数据，写入后跳到数据块之后的下一行
+     * <p>每一列只查找一次样式，单元格直接按基本类型写入，不装箱，也不逐个单元格检查合并区域，
+     * 数据块所在的区域不能与合并区域重叠
+     *
+     * @param block 数据块
+     * @return this
+     * @throws IllegalStateException 数据块与合并区域重叠
+     */
+    public Sheets columns(ColumnBlock block) {
+        workbooks.checkWritable();
+        int rowCount = block.getRowCount();
+        int columnCount = block.getColumnCount();
+        if (rowCount == 0 || columnCount == 0) return this;
+
+        int firstRow = curRowIndex;
+        int firstCol = curColIndex;
+        CellRangeAddress area = new CellRangeAddress(firstRow, firstRow + rowCount - 1,
+                firstCol, firstCol + columnCount - 1);
+        CellRangeAddress overlapped = mergedRegions.findOverlapped(area);
+        if (overlapped != null)
+            throw new IllegalStateException("数据块" + area.formatAsString() +
+                    "与合并区域" + overlapped.formatAsString() + "重叠");
+
+        int[] types = new int[columnCount];
+        Object[] data = new Object[columnCount];
+        CellStyle[] styles = new CellStyle[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            types[c] = block.typeAt(c);
+            data[c] = block.dataAt(c);
+            if (block.styleAt(c) != null)
+                styles[c] = getCellStyle(block.styleAt(c));
+        }
 
-                nextCell();
+        TimeZone timeZone = TimeZone.getDefault();
+        double epochDays = workbooks.isDate1904() ? EXCEL_1904_EPOCH_DAYS : EXCEL_EPOCH_DAYS;
+        for (int r = 0; r < rowCount; r++) {
+            Row row = r == 0 ? curRow : sheet.getRow(firstRow + r);
+            if (row == null)
+                row = sheet.createRow(firstRow + r);
+            for (int c = 0; c < columnCount; c++) {
+                if (types[c] == ColumnBlock.EMPTY) continue;
+                Cell cell = row.createCell(firstCol + c);
+                switch (types[c]) {
+                    case ColumnBlock.DOUBLE:
+                        cell.setCellValue(((double[]) data[c])[r]);
+                        break;
+                    case ColumnBlock.FLOAT:
+                        cell.setCellValue(Converters.toDouble(((float[]) data[c])[r]));
+                        break;
+                    case ColumnBlock.INT:
+                        cell.setCellValue(((int[]) data[c])[r]);
+                        break;
+                    case ColumnBlock.LONG:
+                        cell.setCellValue(((long[]) data[c])[r]);
+                        break;
+                    case ColumnBlock.BOOLEAN:
+                        cell.setCellValue(((boolean[]) data[c])[r]);
+                        break;
+                    default:
+                        long millis = ((long[]) data[c])[r];
+                        cell.setCellValue((millis + timeZone.getOffset(millis)) / (double) DAY_MILLIS + epochDays);
+                        break;
+                }
+                if (styles[c] != null)
+                    setCellStyle(cell, styles[c]);
             }
+        }
 
-            nextRow();
+        // 日期列的宽度只取决于日期格式，按第一个值统计一次
+        for (int c = 0; c < columnCount; c++) {
+            if (types[c] == ColumnBlock.DATE)
+                columnWidths.updateDate(firstCol + c, new Date(((long[]) data[c])[0]), styles[c]);
         }
 
+        curRowIndex = firstRow + rowCount - 1;
+        setCurColIndex(firstCol + columnCount - 1);
+        return nextRow();
+    }
+
+    /**
+     * 按照查询结果的列顺序设置单元格的值
+     *
+     * @param resultSet 查询结果，从游标当前位置开始逐行读取，不会关闭
+     * @return this
+     * @throws SQLException 读取数据失败
+     */
+    public Sheets values(ResultSet resultSet) throws SQLException {
+        return values(null, resultSet);
+    }
+
+    /**
+     * 按照查询结果的列顺序设置单元格的值和样式
+     * <p>每读取一行就写入一行，不创建中间的Bean对象。数值类型的列写入数值，
+     * 日期和时间戳类型的列写入日期，布尔类型的列写入布尔值，其它列写入字符串，NULL写入空单元格
+     *
+     * @param style     样式，日期类型的列使用样式的日期格式
+     * @param resultSet 查询结果，从游标当前位置开始逐行读取，不会关闭
+     * @return this
+     * @throws SQLException 读取数据失败
+     */
+    public Sheets values(@Nullable CellStyleBuilder style, ResultSet resultSet) throws SQLException {
+        workbooks.checkWritable();
+        ResultSetRowWriter rowWriter = new ResultSetRowWriter(workbooks, resultSet.getMetaData(), style);
+        while (resultSet.next()) {
+            rowWriter.write(this, resultSet);
+        }
         return this;
     }
 
@@ -708,6 +1046,9 @@ public class Sheets {
 
     /**
      * 自动调整列宽（支持中文）
+     * <p>通过当前对象写入的字符串和日期在写入时就记录了宽度，直接使用记录的宽度；
+     * 包装已有内容的Sheet时需要扫描所有行，流式工作簿只能扫描仍在内存窗口中的行。
+     * 中文等全角字符按两个字符计算，日期按单元格样式的格式计算
      * <p>参考：https://blog.csdn.net/jeikerxiao/article/details/80702543
      *
      * @param firstColumn 起始列
@@ -715,51 +1056,152 @@ public class Sheets {
      * @return this
      */
     public Sheets autoColumnSize(int firstColumn, int lastColumn) {
+        workbooks.checkWritable();
+        ColumnWidths widths = widthTracked ? columnWidths : scanColumnWidths(firstColumn, lastColumn);
         for (int columnNum = firstColumn; columnNum <= lastColumn; columnNum++) {
-            int columnWidth = sheet.getColumnWidth(columnNum) / 256;
-            for (int rowNum = 0; rowNum <= sheet.getLastRowNum(); rowNum++) {
-                HSSFRow currentRow;
-                //当前行未被使用过
-                if (sheet.getRow(rowNum) == null) {
-                    currentRow = sheet.createRow(rowNum);
-                } else {
-                    currentRow = sheet.getRow(rowNum);
-                }
+            int columnWidth = Math.max(sheet.getColumnWidth(columnNum) / 256, widths.get(columnNum));
+            sheet.setColumnWidth(columnNum, Math.min(columnWidth, ColumnWidths.MAX_WIDTH) * 256);
+        }
+        return this;
+    }
 
-                if (currentRow.getCell(columnNum) != null) {
-                    HSSFCell currentCell = currentRow.getCell(columnNum);
-                    int length = -1;
-                    switch (currentCell.getCellTypeEnum()) {
-                        // 字符串
-                        case STRING:
-                            length = currentCell.getStringCellValue().getBytes().length;
-                            break;
-                        // 日期
-                        case NUMERIC:
-                            if (DateUtil.isValidExcelDate(currentCell.getNumericCellValue())) {
-                                Date value = currentCell.getDateCellValue();
-                                if (value != null) {
-                                    String pattern = currentCell.getCellStyle().getDataFormatString();
-                                    if (pattern != null && !pattern.isEmpty() && !"General".equals(pattern)) {
-                                        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
-                                        length = dateFormat.format(value).getBytes().length;
-                                    }
-                                }
-                            }
-                            break;
-                        default:
-                            break;
-                    }
-                    if (columnWidth < length) {
-                        columnWidth = length;
-                    }
+    /**
+     * 通过抽样自动调整列宽，适用于无法在写入时记录列宽的大表格
+     *
+     * @param firstColumn 起始列
+     * @param lastColumn  结束列（包含）
+     * @param headRows    开头完整统计的行数，如标题和表头
+     * @param sampleRows  其余行中随机抽取的行数
+     * @return this
+     */
+    public Sheets autoColumnSizeSampled(int firstColumn, int lastColumn, int headRows, int sampleRows) {
+        return autoColumnSizeSampled(firstColumn, lastColumn, headRows, sampleRows, 1);
+    }
+
+    /**
+     * 通过抽样自动调整列宽，适用于无法在写入时记录列宽的大表格
+     * <p>开头的headRows行完整统计，其余行中均匀随机地抽取sampleRows行，
+     * 抽样行的宽度取percentile分位数，避免个别特别长的单元格把整列撑宽。
+     * 使用固定的随机种子，同一份数据每次得到相同的列宽。
+     * 空单元格不参与统计，统计结果直接作为列宽，原来较宽的列会变窄
+     *
+     * @param firstColumn 起始列
+     * @param lastColumn  结束列（包含）
+     * @param headRows    开头完整统计的行数，如标题和表头
+     * @param sampleRows  其余行中随机抽取的行数
+     * @param percentile  抽样行宽度的分位数，取值范围(0, 1]，1表示取最大值
+     * @return this
+     */
+    public Sheets autoColumnSizeSampled(int firstColumn, int lastColumn, int headRows, int sampleRows,
+                                       double percentile) {
+        workbooks.checkWritable();
+        if (percentile <= 0 || percentile > 1)
+            throw new IllegalArgumentException("分位数的取值范围为(0, 1]");
+        int columnCount = lastColumn - firstColumn + 1;
+        if (columnCount <= 0) return this;
+
+        ColumnWidths widths = new ColumnWidths();
+        int firstRow = Math.max(sheet.getFirstRowNum(), 0);
+        int lastRow = sheet.getLastRowNum();
+        int restFirstRow = firstRow + Math.max(headRows, 0);
+
+        // 开头的行完整统计
+        for (int rowNum = firstRow; rowNum < restFirstRow && rowNum <= lastRow; rowNum++) {
+            Row row = sheet.getRow(rowNum);
+            if (row == null) continue;
+            for (int columnNum = firstColumn; columnNum <= lastColumn; columnNum++) {
+                Cell cell = row.getCell(columnNum);
+                if (cell != null)
+                    widths.update(columnNum, widths.measure(cell));
+            }
+        }
+
+        // 其余行抽样统计，空单元格不参与计算分位数
+        int[] sampled = sampleRows(restFirstRow, lastRow, Math.max(sampleRows, 0));
+        int[][] sampleWidths = new int[columnCount][sampled.length];
+        int[] sampleCounts = new int[columnCount];
+        for (int rowNum : sampled) {
+            Row row = sheet.getRow(rowNum);
+            if (row == null) continue;
+            for (int columnNum = firstColumn; columnNum <= lastColumn; columnNum++) {
+                Cell cell = row.getCell(columnNum);
+                if (cell != null && cell.getCellTypeEnum() != CellType.BLANK) {
+                    int i = columnNum - firstColumn;
+                    sampleWidths[i][sampleCounts[i]++] = widths.measure(cell);
                 }
             }
-            sheet.setColumnWidth(columnNum, columnWidth * 256);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            int count = sampleCounts[i];
+            if (count == 0) continue;
+            Arrays.sort(sampleWidths[i], 0, count);
+            widths.update(firstColumn + i, sampleWidths[i][(int) Math.ceil(percentile * count) - 1]);
+        }
+
+        // 直接使用统计的宽度，列可以变窄；没有统计到宽度的列保持原宽度
+        for (int columnNum = firstColumn; columnNum <= lastColumn; columnNum++) {
+            int columnWidth = widths.get(columnNum);
+            if (columnWidth > 0)
+                sheet.setColumnWidth(columnNum, Math.min(columnWidth, ColumnWidths.MAX_WIDTH) * 256);
         }
         return this;
     }
 
+    /**
+     * 在指定范围内不重复地随机抽取行号（Floyd抽样算法），不需要遍历所有行
+     *
+     * @param firstRow 起始行号
+     * @param lastRow  结束行号（包含）
+     * @param count    抽取的行数，超过总行数时返回所有行
+     * @return 升序排列的行号
+     */
+    private static int[] sampleRows(int firstRow, int lastRow, int count) {
+        int total = lastRow - firstRow + 1;
+        if (total <= 0) return new int[0];
+        if (count >= total) {
+            int[] rows = new int[total];
+            for (int i = 0; i < total; i++) {
+                rows[i] = firstRow + i;
+            }
+            return rows;
+        }
+
+        Random random = new Random(SAMPLE_SEED);
+        Set<Integer> selected = new HashSet<>(count * 2);
+        for (int j = total - count; j < total; j++) {
+            int t = random.nextInt(j + 1);
+            selected.add(selected.contains(t) ? j : t);
+        }
+        int[] rows = new int[count];
+        int i = 0;
+        for (int offset : selected) {
+            rows[i++] = firstRow + offset;
+        }
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    /**
+     * 扫描所有行，统计指定列的宽度
+     *
+     * @param firstColumn 起始列
+     * @param lastColumn  结束列（包含）
+     * @return 列宽
+     */
+    private ColumnWidths scanColumnWidths(int firstColumn, int lastColumn) {
+        ColumnWidths widths = new ColumnWidths();
+        for (Row row : sheet) {
+            int first = Math.max(firstColumn, row.getFirstCellNum());
+            int last = Math.min(lastColumn, row.getLastCellNum() - 1);
+            for (int columnNum = first; columnNum <= last; columnNum++) {
+                Cell cell = row.getCell(columnNum);
+                if (cell != null)
+                    widths.update(columnNum, widths.measure(cell));
+            }
+        }
+        return widths;
+    }
+
     /**
      * 返回到工作簿
      *
@@ -769,6 +1211,120 @@ public class Sheets {
         return workbooks;
     }
 
+    /**
+     * 从工作簿的样式池中获取样式，连续使用同一个样式建造者时直接返回上一次的样式
+     *
+     * @param style 样式建造者
+     * @return 样式
+     */
+    private CellStyle getCellStyle(CellStyleBuilder style) {
+        if (style != lastStyleBuilder) {
+            lastStyle = workbooks.getCellStyle(style);
+            lastStyleBuilder = style;
+        }
+        return lastStyle;
+    }
+
+    /**
+     * 设置单元格的样式，并行生成时需要加锁（XSSF设置样式时会修改工作簿的样式表）
+     *
+     * @param cell  单元格
+     * @param style 样式
+     */
+    private void setCellStyle(Cell cell, CellStyle style) {
+        if (sharedLock == null) {
+            cell.setCellStyle(style);
+        } else {
+            synchronized (sharedLock) {
+                cell.setCellStyle(style);
+            }
+        }
+    }
+
+    /**
+     * 设置样式后重新记录日期的宽度
+     * <p>日期的宽度取决于样式的日期格式，先写入日期后设置样式时，写入时记录的宽度不准确
+     *
+     * @param cell  单元格
+     * @param style 新的样式
+     */
+    private void updateDateWidth(Cell cell, CellStyle style) {
+        if (cell.getCellTypeEnum() != CellType.NUMERIC
+                || !DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()))
+            return;
+        columnWidths.updateDate(cell.getColumnIndex(), cell.getDateCellValue(), style);
+    }
+
+    /**
+     * 获取当前单元格的样式，并行生成时需要加锁
+     *
+     * @return 样式
+     */
+    private CellStyle getCurCellStyle() {
+        if (sharedLock == null)
+            return curCell.getCellStyle();
+        synchronized (sharedLock) {
+            return curCell.getCellStyle();
+        }
+    }
+
+    /**
+     * 获取Sheet的字符串字典，没有时创建
+     *
+     * @return 字符串字典，.xls不使用字典，返回null
+     */
+    private StringDictionary getStringDictionary() {
+        if (stringDictionary == null) {
+            Workbook workbook = sheet.getWorkbook();
+            if (workbook instanceof StreamingWorkbook) {
+                stringDictionary = ((StreamingWorkbook) workbook).getDictionary(sheet, workbooks.getSharedLock());
+            } else if (workbook instanceof XSSFWorkbook) {
+                stringDictionary = new StringDictionary(((XSSFWorkbook) workbook).getSharedStringSource(),
+                        workbooks.getSharedLock());
+                writeSharedIndex = true;
+            }
+        }
+        return stringDictionary;
+    }
+
+    /**
+     * 把字符串在字典中的序号直接写入当前单元格
+     *
+     * @param value 字符串
+     * @return true为已写入，单元格是公式时返回false
+     */
+    private boolean setSharedString(String value) {
+        CTCell cell = ((XSSFCell) curCell).getCTCell();
+        if (cell.isSetF()) return false;
+        int index = stringDictionary.indexOf(value);
+        if (cell.isSetIs())
+            cell.unsetIs();
+        cell.setT(STCellType.S);
+        cell.setV(Integer.toString(index));
+        return true;
+    }
+
+    /**
+     * 设置工作簿共享数据的锁
+     * <p>HSSF和XSSF的字符串表和样式表由整个工作簿共享，多个线程同时写入不同的Sheet时，
+     * 写入字符串和设置样式需要加锁，其余的写入只修改各自的Sheet，可以并行执行
+     *
+     * @param sharedLock 锁，为null时不加锁
+     */
+    void setSharedLock(@Nullable Object sharedLock) {
+        this.sharedLock = sharedLock;
+    }
+
+    /**
+     * 获取工作簿共享数据的锁
+     *
+     * @return 锁，不加锁时返回null
+     */
+    @Nullable
+    Object getSharedLock() {
+        return sharedLock;
+    }
+
     /**
      * 设置当前列号，并记录最大列号
      *
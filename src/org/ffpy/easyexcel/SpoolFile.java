@@ -0,0 +1,78 @@
+package org.ffpy.easyexcel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 写入到临时文件的工作簿
+ * <p>用于在输出前得到文件大小（如HTTP响应的Content-Length），
+ * 之后通过{@link FileChannel#transferTo}输出，内容不需要保存在堆中。
+ * 关闭时删除临时文件
+ *
+ * @see Workbooks#spool()
+ */
+public class SpoolFile implements Closeable {
+	/** 临时文件 */
+	private final Path path;
+	/** 文件大小 */
+	private final long size;
+
+	/**
+	 * @param path 临时文件
+	 * @param size 文件大小
+	 */
+	SpoolFile(Path path, long size) {
+		this.path = path;
+		this.size = size;
+	}
+
+	/**
+	 * 获取临时文件
+	 *
+	 * @return 临时文件
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * 获取文件大小
+	 *
+	 * @return 字节数
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * 把文件内容传输到通道，可以多次调用
+	 *
+	 * @param target 目标通道，不会被关闭
+	 * @return 传输的字节数
+	 * @throws IOException IO错误
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long position = 0;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * 删除临时文件
+	 *
+	 * @throws IOException IO错误
+	 */
+	@Override
+	public void close() throws IOException {
+		Files.deleteIfExists(path);
+	}
+}
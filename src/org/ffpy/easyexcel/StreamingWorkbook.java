@@ -0,0 +1,126 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 支持按列使用共享字符串的流式工作簿
+ * <p>POI的流式工作簿只能整个工作簿都使用共享字符串或者都使用内联字符串，
+ * 并且使用共享字符串时每个单元格都要创建富文本对象再查找共享字符串表。
+ * 这里默认使用内联字符串，设置了{@link StringDictionary}的列在刷新行时直接写入字典中的序号
+ */
+class StreamingWorkbook extends SXSSFWorkbook {
+    /** 各Sheet的字符串字典，在构造器中创建Sheet时还没有初始化，使用前需要判断null */
+    private Map<Sheet, StringDictionary> dictionaries;
+
+    /**
+     * @param rowAccessWindowSize 内存中保留的行数
+     */
+    StreamingWorkbook(int rowAccessWindowSize) {
+        super(rowAccessWindowSize);
+        dictionaries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param template            模板
+     * @param rowAccessWindowSize 内存中保留的行数
+     */
+    StreamingWorkbook(XSSFWorkbook template, int rowAccessWindowSize) {
+        super(template, rowAccessWindowSize);
+        dictionaries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 获取Sheet的字符串字典，没有时创建
+     *
+     * @param sheet Sheet
+     * @param lock  共享字符串表的锁
+     * @return 字符串字典
+     */
+    StringDictionary getDictionary(Sheet sheet, Object lock) {
+        return dictionaries.computeIfAbsent(sheet,
+                s -> new StringDictionary(getXSSFWorkbook().getSharedStringSource(), lock));
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        return new DictionarySheetDataWriter();
+    }
+
+    /**
+     * 使用字符串字典写入共享字符串的行写入器
+     */
+    private class DictionarySheetDataWriter extends SheetDataWriter {
+        /** 临时文件的输出，在父类的构造器中赋值，不能有初始值 */
+        private Writer out;
+        /** 临时文件是否压缩，在父类的构造器中赋值，不能有初始值 */
+        private boolean compressed;
+
+        DictionarySheetDataWriter() throws IOException {
+            super();
+        }
+
+        @Override
+        public File createTempFile() throws IOException {
+            compressed = isCompressTempFiles();
+            return compressed ? TempFile.createTempFile("poi-sxssf-sheet-xml", ".gz") : super.createTempFile();
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            out = super.createWriter(fd);
+            return out;
+        }
+
+        @Override
+        protected OutputStream decorateOutputStream(FileOutputStream fos) throws IOException {
+            return compressed ? new GZIPOutputStream(fos) : fos;
+        }
+
+        @Override
+        protected InputStream decorateInputStream(FileInputStream fis) throws IOException {
+            return compressed ? new GZIPInputStream(fis) : fis;
+        }
+
+        @Override
+        public void writeCell(int columnIndex, Cell cell) throws IOException {
+            if (cell != null && cell.getCellTypeEnum() == CellType.STRING && dictionaries != null) {
+                StringDictionary dictionary = dictionaries.get(cell.getSheet());
+                if (dictionary != null && dictionary.isShared(columnIndex)) {
+                    out.write("<c r=\"");
+                    out.write(new CellReference(cell.getRowIndex(), columnIndex).formatAsString());
+                    out.write('"');
+                    int style = cell.getCellStyle().getIndex() & 0xffff;
+                    if (style != 0) {
+                        out.write(" s=\"");
+                        out.write(Integer.toString(style));
+                        out.write('"');
+                    }
+                    out.write(" t=\"s\"><v>");
+                    out.write(Integer.toString(dictionary.indexOf(cell.getStringCellValue())));
+                    out.write("</v></c>");
+                    return;
+                }
+            }
+            super.writeCell(columnIndex, cell);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.ffpy.easyexcel;
+
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sheet的字符串字典
+ * <p>记录哪些列使用共享字符串，以及字符串在共享字符串表中的序号。
+ * 每个不同的字符串只在第一次出现时加入共享字符串表，之后重复的值直接使用已有的序号，
+ * 不再为每个单元格创建富文本对象和查找共享字符串表。
+ * 字典属于一个Sheet，只在写入该Sheet的线程中使用；共享字符串表属于工作簿，加入时使用工作簿共享数据的锁
+ */
+class StringDictionary {
+    /** 工作簿的共享字符串表 */
+    private final SharedStringsTable sharedStrings;
+    /** 共享字符串表的锁 */
+    private final Object lock;
+    /** 使用共享字符串的列 */
+    private final BitSet columns = new BitSet();
+    /** 是否所有列都使用共享字符串 */
+    private boolean allColumns;
+    /** 字符串在共享字符串表中的序号（字符串 -> 序号） */
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * @param sharedStrings 工作簿的共享字符串表
+     * @param lock          共享字符串表的锁
+     */
+    StringDictionary(SharedStringsTable sharedStrings, Object lock) {
+        this.sharedStrings = sharedStrings;
+        this.lock = lock;
+    }
+
+    /**
+     * 设置所有列都使用共享字符串
+     */
+    void shareAll() {
+        allColumns = true;
+    }
+
+    /**
+     * 设置指定的列使用共享字符串
+     *
+     * @param columns 列号
+     */
+    void share(int... columns) {
+        for (int column : columns) {
+            if (column < 0)
+                throw new IllegalArgumentException("列号不能小于0：" + column);
+            this.columns.set(column);
+        }
+    }
+
+    /**
+     * 判断列是否使用共享字符串
+     *
+     * @param column 列号
+     * @return true为使用共享字符串
+     */
+    boolean isShared(int column) {
+        return allColumns || columns.get(column);
+    }
+
+    /**
+     * 获取字符串在共享字符串表中的序号，没有时加入共享字符串表
+     *
+     * @param value 字符串
+     * @return 序号
+     */
+    int indexOf(String value) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            synchronized (lock) {
+                index = sharedStrings.addEntry(new XSSFRichTextString(value).getCTRst());
+            }
+            indexes.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * 获取字典中不同字符串的个数
+     *
+     * @return 字符串个数
+     */
+    int size() {
+        return indexes.size();
+    }
+}
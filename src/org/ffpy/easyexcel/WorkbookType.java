@@ -0,0 +1,16 @@
+package org.ffpy.easyexcel;
+
+/**
+ * 工作簿类型
+ */
+public enum WorkbookType {
+	/** Excel 97-2003（.xls），整个表格保存在内存中，最多65536行 */
+	HSSF,
+	/** Excel 2007及以上（.xlsx），整个表格保存在内存中 */
+	XSSF,
+	/**
+	 * Excel 2007及以上（.xlsx），流式写入，超出行窗口的行会被刷新到临时文件，
+	 * 已刷新的行不能再访问
+	 */
+	SXSSF
+}
@@ -1,32 +1,153 @@
 package org.ffpy.easyexcel;
 
+import com.sun.istack.internal.Nullable;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Excel工作簿的辅助类
  */
-public class Workbooks {
+public class Workbooks implements Closeable {
 	/** 工作簿 */
-	private HSSFWorkbook workbook;
+	private Workbook workbook;
+	/** 样式池 */
+	private final CellStylePool stylePool;
+	/** Bean行写入计划缓存 */
+	private final Map<List<Object>, BeanRowWriter> beanRowWriters = new ConcurrentHashMap<>();
+	/** 是否从文件打开，关闭时不把修改写回原文件 */
+	private final boolean opened;
+	/** 工作簿的状态 */
+	private final AtomicReference<State> state = new AtomicReference<>(State.OPEN);
 
 	/**
 	 * 获取工作簿
+	 * <p>通过{@link Excels#open}打开的.xlsx工作簿不能直接关闭，直接关闭会把修改保存回原文件，
+	 * 应通过{@link #close()}关闭
 	 *
 	 * @return 工作簿
 	 */
-	public HSSFWorkbook getWorkbook() {
+	public Workbook getWorkbook() {
 		return workbook;
 	}
 
 	/**
 	 * @param workbook 工作簿
 	 */
-	Workbooks(HSSFWorkbook workbook) {
+	Workbooks(Workbook workbook) {
+		this(workbook, false);
+	}
+
+	/**
+	 * @param workbook 工作簿
+	 * @param opened   是否从文件打开
+	 */
+	Workbooks(Workbook workbook, boolean opened) {
 		this.workbook = workbook;
+		this.stylePool = new CellStylePool(workbook);
+		this.opened = opened;
+	}
+
+	/**
+	 * 获取样式，属性相同的样式建造者在同一个工作簿中只会创建一个样式
+	 *
+	 * @param style 样式建造者
+	 * @return 样式
+	 */
+	public CellStyle getCellStyle(CellStyleBuilder style) {
+		checkWritable();
+		return stylePool.get(style);
+	}
+
+	/**
+	 * 获取样式池
+	 *
+	 * @return 样式池
+	 */
+	CellStylePool getStylePool() {
+		return stylePool;
+	}
+
+	/**
+	 * 获取Bean的行写入计划，同一个Bean类型和样式只创建一次
+	 *
+	 * @param beanClass Bean类型
+	 * @param style     样式
+	 * @return 行写入计划
+	 */
+	BeanRowWriter getBeanRowWriter(Class<?> beanClass, @Nullable CellStyleBuilder style) {
+		List<Object> key = Arrays.<Object>asList(beanClass, style);
+		BeanRowWriter rowWriter = beanRowWriters.get(key);
+		if (rowWriter == null) {
+			rowWriter = new BeanRowWriter(this, beanClass, style);
+			beanRowWriters.put(key, rowWriter);
+		}
+		return rowWriter;
+	}
+
+	/**
+	 * 并行生成多个Sheet
+	 *
+	 * @param executor 执行生成任务的线程池
+	 * @return 并行生成器
+	 */
+	public ParallelSheets parallel(Executor executor) {
+		return new ParallelSheets(this, executor);
+	}
+
+	/**
+	 * 获取工作簿共享数据的锁，样式池创建样式时也使用这个锁
+	 *
+	 * @return 锁
+	 */
+	Object getSharedLock() {
+		return stylePool;
+	}
+
+	/**
+	 * 是否为流式写入的工作簿
+	 *
+	 * @return true为流式工作簿，已刷新到磁盘的行不能再访问
+	 */
+	public boolean isStreaming() {
+		return workbook instanceof SXSSFWorkbook;
+	}
+
+	/**
+	 * 是否使用1904日期系统，从Mac版Excel创建的文件打开的工作簿可能使用
+	 *
+	 * @return true为1904日期系统，false为1900日期系统
+	 */
+	boolean isDate1904() {
+		if (workbook instanceof HSSFWorkbook)
+			return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+		if (workbook instanceof XSSFWorkbook)
+			return ((XSSFWorkbook) workbook).isDate1904();
+		if (workbook instanceof SXSSFWorkbook)
+			return ((SXSSFWorkbook) workbook).getXSSFWorkbook().isDate1904();
+		return false;
 	}
 
 	/**
@@ -35,6 +156,7 @@ public class Workbooks {
 	 * @return 工作簿辅助类
 	 */
 	public Sheets createSheet() {
+		checkWritable();
 		return new Sheets(this, workbook.createSheet());
 	}
 
@@ -45,9 +167,37 @@ public class Workbooks {
 	 * @return 工作簿辅助类
 	 */
 	public Sheets createSheet(String sheetname) {
+		checkWritable();
 		return new Sheets(this, workbook.createSheet(sheetname));
 	}
 
+	/**
+	 * 获取已有的Sheet，写入时从最后一行之后开始追加
+	 *
+	 * @param index Sheet序号，从0开始
+	 * @return 工作簿辅助类
+	 */
+	public Sheets getSheet(int index) {
+		checkWritable();
+		if (index < 0 || index >= workbook.getNumberOfSheets())
+			throw new RuntimeException("找不到Sheet：" + index);
+		return new Sheets(this, workbook.getSheetAt(index));
+	}
+
+	/**
+	 * 获取已有的Sheet，写入时从最后一行之后开始追加
+	 *
+	 * @param sheetname Sheet名称
+	 * @return 工作簿辅助类
+	 */
+	public Sheets getSheet(String sheetname) {
+		checkWritable();
+		Sheet sheet = workbook.getSheet(sheetname);
+		if (sheet == null)
+			throw new RuntimeException("找不到Sheet：" + sheetname);
+		return new Sheets(this, sheet);
+	}
+
 	/**
 	 * 写入到输出流中
 	 *
@@ -55,6 +205,7 @@ public class Workbooks {
 	 * @throws IOException IO错误   
 	 */
 	public void write(OutputStream out) throws IOException {
+		checkWritable();
 		workbook.write(out);
 	}
 
@@ -65,6 +216,242 @@ public class Workbooks {
 	 * @throws IOException IO错误
 	 */
 	public void write(File file) throws IOException {
-		workbook.write(file);
+		checkWritable();
+		try (OutputStream out = new FileOutputStream(file)) {
+			workbook.write(out);
+		}
+	}
+
+	/**
+	 * 写入到通道中
+	 * <p>通过复用的直接缓冲区直接写入通道，不需要先把整个输出保存在堆中
+	 *
+	 * @param channel 通道，不会被关闭
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 */
+	public long write(WritableByteChannel channel) throws IOException {
+		checkWritable();
+		return writeChannel(channel);
+	}
+
+	/**
+	 * 通过文件通道写入到文件
+	 * <p>先检查工作簿是否可以写入，再打开文件，不能写入时不会清空或创建文件
+	 *
+	 * @param path 文件路径
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 */
+	public long write(Path path) throws IOException {
+		checkWritable();
+		return writeFile(path);
+	}
+
+	/**
+	 * 写入到通道中，不检查状态
+	 *
+	 * @param channel 通道，不会被关闭
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 */
+	private long writeChannel(WritableByteChannel channel) throws IOException {
+		ChannelOutputStream out = new ChannelOutputStream(channel);
+		workbook.write(out);
+		out.flush();
+		return out.getCount();
+	}
+
+	/**
+	 * 通过文件通道写入到文件，不检查状态
+	 *
+	 * @param path 文件路径
+	 * @return 写入的字节数
+	 * @throws IOException IO错误
+	 */
+	private long writeFile(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			return writeChannel(channel);
+		}
+	}
+
+	/**
+	 * 写入到临时文件，用于在输出前得到文件大小
+	 *
+	 * @return 临时文件，使用完毕后需要关闭以删除临时文件
+	 * @throws IOException IO错误
+	 */
+	public SpoolFile spool() throws IOException {
+		Path path = Files.createTempFile("easyexcel-", ".tmp");
+		try {
+			return new SpoolFile(path, write(path));
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(path);
+			throw e;
+		}
+	}
+
+	/**
+	 * 在线程池中异步写入到文件
+	 *
+	 * @param path     文件路径
+	 * @param executor 执行写入的线程池
+	 * @return 写入完成时完成
+	 * @see #writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(Path path, Executor executor) {
+		return writeAsync(path, executor, false);
+	}
+
+	/**
+	 * 在线程池中异步写入到文件
+	 *
+	 * @param path     文件路径
+	 * @param executor 执行写入的线程池
+	 * @param release  写入后是否释放工作簿
+	 * @return 写入完成时完成
+	 * @see #writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(Path path, Executor executor, boolean release) {
+		return writeAsync(executor, release, () -> writeFile(path));
+	}
+
+	/**
+	 * 在线程池中异步写入到输出流
+	 *
+	 * @param out      输出流，不会被关闭
+	 * @param executor 执行写入的线程池
+	 * @return 写入完成时完成
+	 * @see #writeAsync(OutputStream, Executor, boolean)
+	 */
+	public CompletableFuture<Void> writeAsync(OutputStream out, Executor executor) {
+		return writeAsync(out, executor, false);
+	}
+
+	/**
+	 * 在线程池中异步写入到输出流
+	 * <p>调用后直到写入完成，工作簿归写入线程所有，修改工作簿、创建样式或再次写入都会抛出
+	 * {@link IllegalStateException}。写入完成后可以继续修改，如果选择了释放，
+	 * 则写入后立即关闭工作簿（流式工作簿同时删除临时文件），之后不能再使用
+	 *
+	 * @param out      输出流，不会被关闭
+	 * @param executor 执行写入的线程池
+	 * @param release  写入后是否释放工作簿
+	 * @return 写入完成时完成，写入失败时以{@link UncheckedIOException}异常完成
+	 */
+	public CompletableFuture<Void> writeAsync(OutputStream out, Executor executor, boolean release) {
+		return writeAsync(executor, release, () -> workbook.write(out));
+	}
+
+	/**
+	 * 异步执行写入任务
+	 *
+	 * @param executor 线程池
+	 * @param release  写入后是否释放工作簿
+	 * @param task     写入任务
+	 * @return 写入完成时完成
+	 */
+	private CompletableFuture<Void> writeAsync(Executor executor, boolean release, WriteTask task) {
+		// 状态不是OPEN时抛出异常，检查期间恰好写入完成则重新尝试
+		while (!state.compareAndSet(State.OPEN, State.WRITING))
+			checkWritable();
+		try {
+			return CompletableFuture.runAsync(() -> {
+				try {
+					task.write();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					if (release) {
+						release();
+					} else {
+						state.set(State.OPEN);
+					}
+				}
+			}, executor);
+		} catch (RuntimeException e) {
+			// 线程池拒绝执行
+			state.set(State.OPEN);
+			throw e;
+		}
+	}
+
+	/**
+	 * 关闭并释放工作簿
+	 */
+	private void release() {
+		try {
+			closeWorkbook();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			workbook = null;
+			beanRowWriters.clear();
+			state.set(State.RELEASED);
+		}
+	}
+
+	/**
+	 * 检查工作簿是否可以修改
+	 *
+	 * @throws IllegalStateException 正在异步写入或已释放
+	 */
+	void checkWritable() {
+		State current = state.get();
+		if (current == State.WRITING)
+			throw new IllegalStateException("工作簿正在异步写入，写入完成前不能修改");
+		if (current == State.RELEASED)
+			throw new IllegalStateException("工作簿已释放");
+	}
+
+	/**
+	 * 关闭工作簿，流式工作簿会同时删除临时文件
+	 * <p>已释放的工作簿已经关闭，再次关闭不做任何事
+	 *
+	 * @throws IOException IO错误
+	 * @throws IllegalStateException 正在异步写入
+	 */
+	@Override
+	public void close() throws IOException {
+		if (state.get() == State.RELEASED) return;
+		checkWritable();
+		closeWorkbook();
+	}
+
+	/**
+	 * 关闭工作簿，不检查状态
+	 *
+	 * @throws IOException IO错误
+	 */
+	private void closeWorkbook() throws IOException {
+		if (workbook == null) return;
+		if (workbook instanceof SXSSFWorkbook)
+			((SXSSFWorkbook) workbook).dispose();
+		if (opened && workbook instanceof XSSFWorkbook) {
+			// 直接关闭会把修改保存回原文件
+			((XSSFWorkbook) workbook).getPackage().revert();
+		} else {
+			workbook.close();
+		}
+	}
+
+	/**
+	 * 工作簿的状态
+	 */
+	private enum State {
+		/** 可以修改 */
+		OPEN,
+		/** 正在异步写入 */
+		WRITING,
+		/** 已释放 */
+		RELEASED
+	}
+
+	/**
+	 * 写入任务
+	 */
+	private interface WriteTask {
+		void write() throws IOException;
 	}
 }
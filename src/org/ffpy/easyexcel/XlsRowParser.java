@@ -0,0 +1,281 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * .xls文件的流式读取器
+ * <p>基于HSSF的事件模型逐条处理记录，不创建工作簿对象，只保留当前行的数据和共享字符串表
+ */
+class XlsRowParser extends AbortableHSSFListener {
+    /**
+     * 公式缓存结果的类型（{@link FormulaRecord#getCachedResultType}），与{@link CellType}的编码相同。
+     * POI 3.17的记录层没有返回枚举的方法，直接比较编码，避免使用过时的{@link CellType#forInt}
+     */
+    private static final int RESULT_NUMERIC = 0;
+    private static final int RESULT_STRING = 1;
+    private static final int RESULT_BOOLEAN = 4;
+
+    /** 行处理器 */
+    private final RowHandler handler;
+    /** 要读取的Sheet序号 */
+    private final int targetSheet;
+    /** 要读取的Sheet名称，为null时按序号选择 */
+    private final String targetName;
+    /** 各Sheet的名称，按BoundSheetRecord的顺序，包括图表和宏表 */
+    private final List<String> sheetNames = new ArrayList<>();
+    /** 记录单元格格式，用于识别日期 */
+    private final FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(new HSSFListener() {
+        @Override
+        public void processRecord(Record record) {
+        }
+    });
+    /** 共享字符串表 */
+    private SSTRecord sst;
+    /** 是否使用1904日期系统 */
+    private boolean date1904;
+    /** 当前Sheet在所有Sheet中的序号，与{@link #sheetNames}对应 */
+    private int boundSheetIndex = -1;
+    /** 当前Sheet在工作表中的序号，图表和宏表不计算在内 */
+    private int sheetIndex = -1;
+    /** 子流的嵌套深度，工作表中嵌入的图表有自己的BOF和EOF */
+    private int depth;
+    /** 当前是否在要读取的Sheet中 */
+    private boolean inTarget;
+    /** 是否找到了要读取的Sheet */
+    private boolean found;
+    /** 当前行号 */
+    private int rowIndex = -1;
+    /** 当前行的数据 */
+    private Object[] cells = new Object[16];
+    /** 当前行的列数 */
+    private int cellCount;
+    /** 公式的字符串结果在下一条StringRecord中，记录公式所在的列，-1表示没有 */
+    private int stringFormulaColumn = -1;
+    /** 是否已停止读取 */
+    private boolean stopped;
+
+    /**
+     * @param handler     行处理器
+     * @param targetSheet 要读取的Sheet序号
+     * @param targetName  要读取的Sheet名称，为null时按序号选择
+     */
+    private XlsRowParser(RowHandler handler, int targetSheet, @Nullable String targetName) {
+        this.handler = handler;
+        this.targetSheet = targetSheet;
+        this.targetName = targetName;
+    }
+
+    /**
+     * 读取文件中的一个Sheet
+     *
+     * @param file        .xls文件
+     * @param targetSheet Sheet序号，从0开始，只计算工作表
+     * @param targetName  Sheet名称，为null时按序号选择
+     * @param handler     行处理器
+     * @return 是否找到了要读取的Sheet
+     * @throws IOException 读取失败
+     */
+    public static boolean parse(File file, int targetSheet, @Nullable String targetName, RowHandler handler)
+            throws IOException {
+        XlsRowParser parser = new XlsRowParser(handler, targetSheet, targetName);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(parser);
+        try (NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true)) {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs.getRoot());
+        } catch (HSSFUserException e) {
+            throw new IOException(e);
+        }
+        return parser.found;
+    }
+
+    @Override
+    public short abortableProcessRecord(Record record) {
+        formatListener.processRecordInternally(record);
+
+        switch (record.getSid()) {
+            case DateWindow1904Record.sid:
+                date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                break;
+            case SSTRecord.sid:
+                sst = (SSTRecord) record;
+                break;
+            case BoundSheetRecord.sid:
+                sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                break;
+            case BOFRecord.sid: {
+                // 每个Sheet的子流都从最外层的BOF开始，顺序与BoundSheetRecord相同
+                int type = ((BOFRecord) record).getType();
+                if (depth++ == 0 && type != BOFRecord.TYPE_WORKBOOK) {
+                    boundSheetIndex++;
+                    boolean worksheet = type == BOFRecord.TYPE_WORKSHEET;
+                    if (worksheet)
+                        sheetIndex++;
+                    inTarget = worksheet && (targetName == null ? sheetIndex == targetSheet
+                            : boundSheetIndex < sheetNames.size()
+                            && targetName.equals(sheetNames.get(boundSheetIndex)));
+                    found |= inTarget;
+                }
+                break;
+            }
+            case EOFRecord.sid:
+                // 读取完目标Sheet后不再处理后面的记录
+                if (--depth == 0 && inTarget) {
+                    endRow();
+                    return 1;
+                }
+                break;
+            default:
+                // 其它Sheet和嵌入图表的记录不处理
+                if (inTarget && depth == 1)
+                    processCell(record);
+                break;
+        }
+        return stopped ? (short) 1 : 0;
+    }
+
+    /**
+     * 处理单元格记录
+     *
+     * @param record 记录
+     */
+    private void processCell(Record record) {
+        // 不需要的列不转换
+        if (record instanceof CellValueRecordInterface
+                && !handler.acceptColumn(((CellValueRecordInterface) record).getColumn())) {
+            return;
+        }
+        switch (record.getSid()) {
+            case NumberRecord.sid: {
+                NumberRecord number = (NumberRecord) record;
+                setCell(number, numberValue(number, number.getValue()));
+                break;
+            }
+            case LabelSSTRecord.sid: {
+                LabelSSTRecord label = (LabelSSTRecord) record;
+                setCell(label, sst.getString(label.getSSTIndex()).getString());
+                break;
+            }
+            case LabelRecord.sid: {
+                LabelRecord label = (LabelRecord) record;
+                setCell(label, label.getValue());
+                break;
+            }
+            case BoolErrRecord.sid: {
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                setCell(boolErr, boolErr.isBoolean() ? (Object) boolErr.getBooleanValue() : null);
+                break;
+            }
+            case FormulaRecord.sid: {
+                FormulaRecord formula = (FormulaRecord) record;
+                switch (formula.getCachedResultType()) {
+                    case RESULT_NUMERIC:
+                        setCell(formula, numberValue(formula, formula.getValue()));
+                        break;
+                    case RESULT_BOOLEAN:
+                        setCell(formula, formula.getCachedBooleanValue());
+                        break;
+                    case RESULT_STRING:
+                        setCell(formula, null);
+                        stringFormulaColumn = formula.getColumn();
+                        break;
+                    default:
+                        setCell(formula, null);
+                        break;
+                }
+                break;
+            }
+            case StringRecord.sid:
+                if (stringFormulaColumn >= 0) {
+                    putCell(stringFormulaColumn, ((StringRecord) record).getString());
+                    stringFormulaColumn = -1;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 转换数值，日期格式的数值转换为日期
+     *
+     * @param record 单元格记录
+     * @param value  数值
+     * @return Double或Date
+     */
+    private Object numberValue(CellValueRecordInterface record, double value) {
+        int formatIndex = formatListener.getFormatIndex(record);
+        String formatString = formatListener.getFormatString(formatIndex);
+        if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value))
+            return DateUtil.getJavaDate(value, date1904);
+        return value;
+    }
+
+    /**
+     * 设置单元格的值，行号变化时先结束上一行
+     *
+     * @param record 单元格记录
+     * @param value  值
+     */
+    private void setCell(CellValueRecordInterface record, Object value) {
+        if (record.getRow() != rowIndex) {
+            endRow();
+            rowIndex = record.getRow();
+        }
+        putCell(record.getColumn(), value);
+    }
+
+    /**
+     * 把值放到当前行中
+     *
+     * @param column 列号
+     * @param value  值
+     */
+    private void putCell(int column, Object value) {
+        if (column >= cells.length)
+            cells = Arrays.copyOf(cells, Math.max(cells.length * 2, column + 1));
+        cells[column] = value;
+        if (column >= cellCount)
+            cellCount = column + 1;
+    }
+
+    /**
+     * 结束当前行，交给行处理器
+     */
+    private void endRow() {
+        if (rowIndex < 0 || stopped) return;
+        Object[] row = Arrays.copyOf(cells, cellCount);
+        Arrays.fill(cells, 0, cellCount, null);
+        cellCount = 0;
+        if (!handler.row(rowIndex, row))
+            stopped = true;
+        rowIndex = -1;
+    }
+}
@@ -0,0 +1,459 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * .xlsx文件中一个Sheet的行偏移索引，用于分页读取
+ * <p>每隔若干行记录一次该行在Sheet的XML（解压后）中的字节偏移，读取某一页时
+ * 从最近的检查点开始解析，前面的内容只需解压跳过而不需要解析XML，
+ * 因此越靠后的页不会因为要解析前面所有的行而越来越慢。
+ * <p>索引可以保存到文件旁边的.idx文件或者指定的位置，文件被修改后索引失效
+ *
+ * @see ExcelReader#index(XlsxRowIndex)
+ */
+public class XlsxRowIndex {
+	/** 索引文件的标识 */
+	private static final int MAGIC = 0x58524958;
+	/** 索引文件的版本 */
+	private static final int VERSION = 1;
+
+	/** Sheet序号 */
+	private final int sheetIndex;
+	/** 检查点的间隔行数 */
+	private final int interval;
+	/** 建立索引时文件的长度 */
+	private final long fileLength;
+	/** 建立索引时文件的修改时间 */
+	private final long lastModified;
+	/** 第一行之前的XML内容，包含根元素的命名空间声明 */
+	private final byte[] header;
+	/** 各检查点的行号 */
+	private final int[] rowIndexes;
+	/** 各检查点在XML中的字节偏移 */
+	private final long[] offsets;
+
+	private XlsxRowIndex(int sheetIndex, int interval, long fileLength, long lastModified, byte[] header,
+						 int[] rowIndexes, long[] offsets) {
+		this.sheetIndex = sheetIndex;
+		this.interval = interval;
+		this.fileLength = fileLength;
+		this.lastModified = lastModified;
+		this.header = header;
+		this.rowIndexes = rowIndexes;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * 为文件中的一个Sheet建立索引
+	 * <p>建立索引时只扫描XML的字节，不解析XML
+	 *
+	 * @param file       .xlsx文件
+	 * @param sheetIndex Sheet序号，从0开始
+	 * @param interval   每隔多少行记录一个检查点
+	 * @return 索引
+	 */
+	public static XlsxRowIndex build(File file, int sheetIndex, int interval) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("检查点间隔必须大于0");
+		long fileLength = file.length();
+		long lastModified = file.lastModified();
+		OPCPackage pkg = XlsxRowParser.openPackage(file);
+		try {
+			Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+			for (int i = 0; sheets.hasNext(); i++) {
+				try (InputStream in = sheets.next()) {
+					if (i == sheetIndex) {
+						Scanner scanner = new Scanner(in, interval);
+						scanner.scan();
+						return new XlsxRowIndex(sheetIndex, interval, fileLength, lastModified, scanner.header,
+								Arrays.copyOf(scanner.rowIndexes, scanner.count),
+								Arrays.copyOf(scanner.offsets, scanner.count));
+					}
+				}
+			}
+			throw new RuntimeException("找不到Sheet：" + sheetIndex);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (OpenXML4JException e) {
+			throw new RuntimeException(e);
+		} finally {
+			pkg.revert();
+		}
+	}
+
+	/**
+	 * 读取文件旁边保存的索引，不存在或已失效时重新建立并保存
+	 *
+	 * @param file       .xlsx文件
+	 * @param sheetIndex Sheet序号，从0开始
+	 * @param interval   每隔多少行记录一个检查点
+	 * @return 索引
+	 * @see #indexFile(File)
+	 */
+	public static XlsxRowIndex loadOrBuild(File file, int sheetIndex, int interval) {
+		return loadOrBuild(file, indexFile(file), sheetIndex, interval);
+	}
+
+	/**
+	 * 读取指定位置保存的索引，不存在或已失效时重新建立并保存
+	 * <p>保存失败（如目录不可写）时不影响读取，返回的索引仍然可以使用，下次会重新建立
+	 *
+	 * @param file       .xlsx文件
+	 * @param indexFile  索引文件，为null时只在内存中建立索引，不读取也不保存
+	 * @param sheetIndex Sheet序号，从0开始
+	 * @param interval   每隔多少行记录一个检查点
+	 * @return 索引
+	 */
+	public static XlsxRowIndex loadOrBuild(File file, @Nullable File indexFile, int sheetIndex, int interval) {
+		if (indexFile != null && indexFile.isFile()) {
+			try {
+				XlsxRowIndex index = load(indexFile);
+				if (index.sheetIndex == sheetIndex && index.interval == interval && index.matches(file))
+					return index;
+			} catch (UncheckedIOException e) {
+				// 索引文件损坏时重新建立
+			}
+		}
+		XlsxRowIndex index = build(file, sheetIndex, interval);
+		if (indexFile != null) {
+			try {
+				index.save(indexFile);
+			} catch (UncheckedIOException e) {
+				// 保存只是为了下次不用重新建立，失败时使用内存中的索引
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 获取保存在文件旁边的索引文件，即文件名加上.idx后缀
+	 *
+	 * @param file .xlsx文件
+	 * @return 索引文件
+	 */
+	public static File indexFile(File file) {
+		return new File(file.getPath() + ".idx");
+	}
+
+	/**
+	 * 从文件中读取索引
+	 *
+	 * @param indexFile 索引文件
+	 * @return 索引
+	 */
+	public static XlsxRowIndex load(File indexFile) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				Files.newInputStream(indexFile.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("不是索引文件：" + indexFile);
+			int sheetIndex = in.readInt();
+			int interval = in.readInt();
+			long fileLength = in.readLong();
+			long lastModified = in.readLong();
+			byte[] header = new byte[in.readInt()];
+			in.readFully(header);
+			int count = in.readInt();
+			int[] rowIndexes = new int[count];
+			long[] offsets = new long[count];
+			for (int i = 0; i < count; i++) {
+				rowIndexes[i] = in.readInt();
+				offsets[i] = in.readLong();
+			}
+			return new XlsxRowIndex(sheetIndex, interval, fileLength, lastModified, header, rowIndexes, offsets);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 把索引保存到文件
+	 *
+	 * @param indexFile 索引文件
+	 */
+	public void save(File indexFile) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(indexFile.toPath())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(sheetIndex);
+			out.writeInt(interval);
+			out.writeLong(fileLength);
+			out.writeLong(lastModified);
+			out.writeInt(header.length);
+			out.write(header);
+			out.writeInt(rowIndexes.length);
+			for (int i = 0; i < rowIndexes.length; i++) {
+				out.writeInt(rowIndexes[i]);
+				out.writeLong(offsets[i]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 判断索引是否对应文件的当前内容
+	 *
+	 * @param file .xlsx文件
+	 * @return true为索引有效
+	 */
+	public boolean matches(File file) {
+		return file.length() == fileLength && file.lastModified() == lastModified;
+	}
+
+	/**
+	 * 获取Sheet序号
+	 *
+	 * @return Sheet序号
+	 */
+	public int getSheetIndex() {
+		return sheetIndex;
+	}
+
+	/**
+	 * 获取检查点的数量
+	 *
+	 * @return 检查点的数量
+	 */
+	public int size() {
+		return rowIndexes.length;
+	}
+
+	/**
+	 * 查找不超过指定行的最后一个检查点
+	 *
+	 * @param rowIndex 行号
+	 * @return 检查点序号，没有时返回-1
+	 */
+	int checkpoint(int rowIndex) {
+		int i = Arrays.binarySearch(rowIndexes, rowIndex);
+		return i >= 0 ? i : -i - 2;
+	}
+
+	/**
+	 * 获取检查点的行号
+	 *
+	 * @param checkpoint 检查点序号
+	 * @return 行号
+	 */
+	int rowIndexAt(int checkpoint) {
+		return rowIndexes[checkpoint];
+	}
+
+	/**
+	 * 获取检查点在XML中的字节偏移
+	 *
+	 * @param checkpoint 检查点序号
+	 * @return 字节偏移
+	 */
+	long offsetAt(int checkpoint) {
+		return offsets[checkpoint];
+	}
+
+	/**
+	 * 获取第一行之前的XML内容
+	 *
+	 * @return XML内容
+	 */
+	byte[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * 扫描XML的字节，查找行元素的起始位置
+	 * <p>文本和属性值中的'&lt;'都已转义，因此'&lt;'一定是标签的开始
+	 */
+	private static class Scanner {
+		/** 输入流 */
+		private final InputStream in;
+		/** 检查点的间隔行数 */
+		private final int interval;
+		/** 缓冲区 */
+		private final byte[] buf = new byte[64 * 1024];
+		/** 缓冲区中下一个字节的位置 */
+		private int pos;
+		/** 缓冲区中有效字节的长度 */
+		private int limit;
+		/** 缓冲区开头在XML中的偏移 */
+		private long bufOffset;
+		/** 第一行之前的内容 */
+		private final ByteArrayOutputStream headerBuffer = new ByteArrayOutputStream();
+
+		/** 第一行之前的XML内容 */
+		byte[] header;
+		/** 各检查点的行号 */
+		int[] rowIndexes = new int[64];
+		/** 各检查点的字节偏移 */
+		long[] offsets = new long[64];
+		/** 检查点的数量 */
+		int count;
+
+		Scanner(InputStream in, int interval) {
+			this.in = in;
+			this.interval = interval;
+		}
+
+		/**
+		 * 扫描整个XML
+		 *
+		 * @throws IOException 读取失败
+		 */
+		void scan() throws IOException {
+			int rowIndex = -1;
+			int rowCount = 0;
+			int b;
+			while ((b = next()) != -1) {
+				if (b != '<') continue;
+				long tagOffset = bufOffset + pos - 1;
+				if (!readRowTagName()) continue;
+
+				if (header == null) {
+					// 当前缓冲区中第一行之前的部分也属于头部
+					headerBuffer.write(buf, 0, pos);
+					header = Arrays.copyOf(headerBuffer.toByteArray(), (int) tagOffset);
+				}
+				int r = readRowAttribute();
+				rowIndex = r > 0 ? r - 1 : rowIndex + 1;
+				if (rowCount++ % interval == 0)
+					addCheckpoint(rowIndex, tagOffset);
+			}
+			if (header == null)
+				header = headerBuffer.toByteArray();
+		}
+
+		/**
+		 * 读取标签名，判断是否为行元素（忽略命名空间前缀）
+		 *
+		 * @return true为行元素
+		 * @throws IOException 读取失败
+		 */
+		private boolean readRowTagName() throws IOException {
+			int matched = 0;
+			int b;
+			while ((b = peek()) != -1) {
+				if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '>' || b == '/')
+					return matched == 3;
+				pos++;
+				if (b == ':') {
+					matched = 0;
+				} else if (matched >= 0 && matched < 3 && b == "row".charAt(matched)) {
+					matched++;
+				} else {
+					matched = -1;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * 读取行元素的r属性
+		 *
+		 * @return r属性的值，没有时返回-1
+		 * @throws IOException 读取失败
+		 */
+		private int readRowAttribute() throws IOException {
+			int quote = 0;
+			int prev = ' ';
+			int b;
+			while ((b = next()) != -1 && (quote != 0 || b != '>')) {
+				if (quote != 0) {
+					if (b == quote) quote = 0;
+				} else if (b == '"' || b == '\'') {
+					quote = b;
+				} else if (b == 'r' && Character.isWhitespace(prev) && peek() == '=') {
+					pos++;
+					int q = next();
+					int value = 0;
+					while ((b = next()) != -1 && b != q) {
+						value = value * 10 + (b - '0');
+					}
+					prev = b;
+					return finishTag(value);
+				}
+				prev = b;
+			}
+			return -1;
+		}
+
+		/**
+		 * 跳过标签的剩余部分
+		 *
+		 * @param value 返回值
+		 * @return value
+		 * @throws IOException 读取失败
+		 */
+		private int finishTag(int value) throws IOException {
+			int quote = 0;
+			int b;
+			while ((b = next()) != -1 && (quote != 0 || b != '>')) {
+				if (quote != 0) {
+					if (b == quote) quote = 0;
+				} else if (b == '"' || b == '\'') {
+					quote = b;
+				}
+			}
+			return value;
+		}
+
+		/**
+		 * 添加检查点
+		 *
+		 * @param rowIndex 行号
+		 * @param offset   字节偏移
+		 */
+		private void addCheckpoint(int rowIndex, long offset) {
+			if (count == rowIndexes.length) {
+				rowIndexes = Arrays.copyOf(rowIndexes, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			rowIndexes[count] = rowIndex;
+			offsets[count++] = offset;
+		}
+
+		/**
+		 * 读取下一个字节
+		 *
+		 * @return 字节，结束时返回-1
+		 * @throws IOException 读取失败
+		 */
+		private int next() throws IOException {
+			int b = peek();
+			if (b != -1) pos++;
+			return b;
+		}
+
+		/**
+		 * 查看下一个字节但不移动位置
+		 *
+		 * @return 字节，结束时返回-1
+		 * @throws IOException 读取失败
+		 */
+		private int peek() throws IOException {
+			if (pos == limit) {
+				if (header == null)
+					headerBuffer.write(buf, 0, limit);
+				bufOffset += limit;
+				pos = 0;
+				limit = Math.max(in.read(buf), 0);
+				if (limit == 0) return -1;
+			}
+			return buf[pos] & 0xFF;
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package org.ffpy.easyexcel;
+
+import com.sun.istack.internal.Nullable;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * .xlsx文件的流式读取器
+ * <p>通过SAX逐个解析Sheet的XML，不创建工作簿对象，只保留当前行的数据、共享字符串表和样式表
+ */
+class XlsxRowParser extends DefaultHandler {
+    /** 行处理器 */
+    private final RowHandler handler;
+    /** 共享字符串表 */
+    private final ReadOnlySharedStringsTable strings;
+    /** 样式表 */
+    private final StylesTable styles;
+    /** 是否使用1904日期系统 */
+    private final boolean date1904;
+    /** 样式是否为日期格式（样式序号 -> 是否为日期格式） */
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+    /** 当前行号 */
+    private int rowIndex = -1;
+    /** 当前行的数据 */
+    private Object[] cells = new Object[16];
+    /** 当前行的列数 */
+    private int cellCount;
+    /** 当前列号 */
+    private int column = -1;
+    /** 当前单元格的类型 */
+    private String cellType;
+    /** 当前单元格的样式序号 */
+    private int styleIndex;
+    /** 当前单元格是否需要读取 */
+    private boolean accepted;
+    /** 是否正在读取值 */
+    private boolean inValue;
+    /** 当前单元格的值 */
+    private final StringBuilder value = new StringBuilder();
+
+    private XlsxRowParser(RowHandler handler, ReadOnlySharedStringsTable strings, StylesTable styles,
+                          boolean date1904) {
+        this.handler = handler;
+        this.strings = strings;
+        this.styles = styles;
+        this.date1904 = date1904;
+    }
+
+    /**
+     * 读取文件中的一个Sheet
+     *
+     * @param file        .xlsx文件
+     * @param targetSheet Sheet序号，从0开始
+     * @param targetName  Sheet名称，为null时按序号选择
+     * @param handler     行处理器
+     * @return 是否找到了要读取的Sheet
+     * @throws IOException 读取失败
+     */
+    public static boolean parse(File file, int targetSheet, @Nullable String targetName, RowHandler handler)
+            throws IOException {
+        OPCPackage pkg = openPackage(file);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            boolean date1904 = isDate1904(reader);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+                // 其它Sheet不解析
+                try (InputStream in = sheets.next()) {
+                    if (targetName == null ? sheetIndex == targetSheet : targetName.equals(sheets.getSheetName())) {
+                        XlsxRowParser parser = new XlsxRowParser(handler,
+                                new ReadOnlySharedStringsTable(pkg), reader.getStylesTable(), date1904);
+                        parser.parseSheet(in);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException(e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 借助索引从指定行附近开始读取
+     * <p>解压后的XML跳过到最近的检查点，再在前面拼上根元素等头部内容，
+     * 跳过的部分不需要解析
+     *
+     * @param file     .xlsx文件
+     * @param index    行偏移索引
+     * @param firstRow 要读取的第一行
+     * @param handler  行处理器
+     * @throws IOException 读取失败
+     */
+    public static void parse(File file, XlsxRowIndex index, int firstRow, RowHandler handler) throws IOException {
+        OPCPackage pkg = openPackage(file);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            boolean date1904 = isDate1904(reader);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+                try (InputStream in = sheets.next()) {
+                    if (sheetIndex != index.getSheetIndex()) continue;
+
+                    XlsxRowParser parser = new XlsxRowParser(handler,
+                            new ReadOnlySharedStringsTable(pkg), reader.getStylesTable(), date1904);
+                    int checkpoint = index.checkpoint(firstRow);
+                    if (checkpoint < 0) {
+                        parser.parseSheet(in);
+                    } else {
+                        skipFully(in, index.offsetAt(checkpoint));
+                        // 行元素没有r属性时从检查点的行号开始计算
+                        parser.rowIndex = index.rowIndexAt(checkpoint) - 1;
+                        parser.parseSheet(new SequenceInputStream(new ByteArrayInputStream(index.getHeader()), in));
+                    }
+                    return;
+                }
+            }
+            throw new IOException("找不到Sheet：" + index.getSheetIndex());
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException(e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 以只读方式打开.xlsx文件
+     *
+     * @param file .xlsx文件
+     * @return 文件包，使用完毕后调用revert()关闭
+     */
+    static OPCPackage openPackage(File file) {
+        try {
+            return OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new RuntimeException("打开文件失败：" + file, e);
+        }
+    }
+
+    /**
+     * 跳过指定的字节数
+     *
+     * @param in 输入流
+     * @param n  字节数
+     * @throws IOException 读取失败或提前结束
+     */
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() == -1)
+                    throw new EOFException("索引与文件内容不一致");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    /**
+     * 解析Sheet的XML
+     *
+     * @param in Sheet的XML
+     * @throws IOException  读取失败
+     * @throws SAXException 解析失败
+     */
+    private void parseSheet(InputStream in) throws IOException, SAXException {
+        try {
+            XMLReader xmlReader = SAXHelper.newXMLReader();
+            xmlReader.setContentHandler(this);
+            xmlReader.parse(new InputSource(in));
+        } catch (StopParsingException e) {
+            // 行处理器要求停止读取
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    /**
+     * 读取工作簿是否使用1904日期系统
+     *
+     * @param reader 读取器
+     * @return true为1904日期系统
+     */
+    private static boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+        final boolean[] date1904 = {false};
+        try (InputStream in = reader.getWorkbookData()) {
+            XMLReader xmlReader = SAXHelper.newXMLReader();
+            xmlReader.setContentHandler(new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes)
+                        throws SAXException {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equals(value);
+                        throw new StopParsingException();
+                    } else if ("sheets".equals(localName)) {
+                        throw new StopParsingException();
+                    }
+                }
+            });
+            xmlReader.parse(new InputSource(in));
+        } catch (StopParsingException e) {
+            // 已读取到需要的内容
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+        return date1904[0];
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row": {
+                String r = attributes.getValue("r");
+                rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+                column = -1;
+                break;
+            }
+            case "c": {
+                String r = attributes.getValue("r");
+                column = r == null ? column + 1 : columnIndex(r);
+                accepted = handler.acceptColumn(column);
+                cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                styleIndex = s == null ? 0 : Integer.parseInt(s);
+                value.setLength(0);
+                break;
+            }
+            case "v":
+            case "t":
+                // 不需要的列不保存值
+                inValue = accepted;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue)
+            value.append(ch, start, length);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v":
+            case "t":
+                inValue = false;
+                break;
+            case "c":
+                if (accepted)
+                    putCell(column, cellValue());
+                break;
+            case "row":
+                endRow();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 转换当前单元格的值
+     *
+     * @return String、Double、Boolean、Date或null
+     */
+    private Object cellValue() {
+        if (cellType == null || "n".equals(cellType)) {
+            if (value.length() == 0) return null;
+            double number = Double.parseDouble(value.toString());
+            if (isDateStyle(styleIndex) && DateUtil.isValidExcelDate(number))
+                return DateUtil.getJavaDate(number, date1904);
+            return number;
+        }
+        switch (cellType) {
+            case "s":
+                return strings.getEntryAt(Integer.parseInt(value.toString()));
+            case "inlineStr":
+            case "str":
+                return value.toString();
+            case "b":
+                return value.length() > 0 && value.charAt(0) == '1';
+            default:
+                // 错误值
+                return null;
+        }
+    }
+
+    /**
+     * 判断样式是否为日期格式
+     *
+     * @param index 样式序号
+     * @return true为日期格式
+     */
+    private boolean isDateStyle(int index) {
+        Boolean date = dateStyles.get(index);
+        if (date == null) {
+            date = false;
+            if (index < styles.getNumCellStyles()) {
+                XSSFCellStyle style = styles.getStyleAt(index);
+                date = DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            }
+            dateStyles.put(index, date);
+        }
+        return date;
+    }
+
+    /**
+     * 把值放到当前行中
+     *
+     * @param column 列号
+     * @param value  值
+     */
+    private void putCell(int column, Object value) {
+        if (column >= cells.length)
+            cells = Arrays.copyOf(cells, Math.max(cells.length * 2, column + 1));
+        cells[column] = value;
+        if (column >= cellCount)
+            cellCount = column + 1;
+    }
+
+    /**
+     * 结束当前行，交给行处理器
+     *
+     * @throws StopParsingException 行处理器要求停止读取
+     */
+    private void endRow() throws StopParsingException {
+        Object[] row = Arrays.copyOf(cells, cellCount);
+        Arrays.fill(cells, 0, cellCount, null);
+        cellCount = 0;
+        if (row.length > 0 && !handler.row(rowIndex, row))
+            throw new StopParsingException();
+    }
+
+    /**
+     * 把单元格引用（如"AB12"）转换为列号
+     *
+     * @param ref 单元格引用
+     * @return 列号，从0开始
+     */
+    static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * 提前结束解析
+     */
+    private static class StopParsingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+}
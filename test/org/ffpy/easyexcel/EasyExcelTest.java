@@ -1,17 +1,84 @@
 package org.ffpy.easyexcel;
 
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class EasyExcelTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
 
     private List<Item> getData() {
         List<Item> data = new ArrayList<>();
@@ -125,6 +192,1165 @@ public class EasyExcelTest {
                 .write(new File("example/example4.xls"));
     }
 
+    @Test
+    public void example5() throws IOException {
+        CellStyleBuilder centerStyle = CellStyleBuilder.of()
+                .alignment(HorizontalAlignment.CENTER)
+                .dateFormat("yyyy-MM-dd");
+        CellStyleBuilder centerBoldStyle = CellStyleBuilder.of(centerStyle).bold(true);
+
+        List<Item> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(new Item(String.format("%04d", i), "学生" + i, "数学", i % 100, new Date()));
+        }
+
+        File file = new File(temp.getRoot(), "example5.xlsx");
+        // 内存中只保留10行
+        try (Workbooks workbooks = Excels.createStreamingWorkbook(10)) {
+            Excels.helper(workbooks)
+                    .title(centerBoldStyle, "成绩表")
+                    .header(centerBoldStyle, "学号", "姓名", "课程", "成绩", "日期")
+                    .body(centerStyle, data)
+                    .write(file);
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("成绩表", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(1, sheet.getNumMergedRegions());
+            assertEquals(4, sheet.getMergedRegion(0).getLastColumn());
+            assertEquals("0999", sheet.getRow(1001).getCell(0).getStringCellValue());
+        } catch (InvalidFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Test
+    public void lazyValues() {
+        // 逐个生成数据，不需要先放到List中
+        Stream<Item> stream = IntStream.range(0, 1000)
+                .mapToObj(i -> new Item(String.valueOf(i), "学生" + i, "数学", i, new Date()));
+        ExcelHelper helper = Excels.helper()
+                .header("学号", "姓名", "课程", "成绩", "日期")
+                .body(null, Item.class, stream);
+        Sheet sheet = helper.getSheet().getSheet();
+        assertEquals("999", sheet.getRow(1000).getCell(0).getStringCellValue());
+        assertEquals(999, sheet.getRow(1000).getCell(3).getNumericCellValue(), 0);
+
+        // 子类按照指定的Bean类型写入
+        List<Item> data = new ArrayList<>();
+        data.add(new RankedItem("0001", "小明", "数学", 60, new Date(), 1));
+        sheet = Excels.createWorkbook().createSheet().values(null, Item.class, data).getSheet();
+        assertEquals(CellType.BLANK, sheet.getRow(0).getCell(5).getCellTypeEnum());
+    }
+
+    @Test
+    public void resultSet() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:resultSet");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE exam (name VARCHAR(20), score DECIMAL(10, 2), exam_date DATE,"
+                    + " exam_time TIMESTAMP, passed BIT)");
+            statement.execute("INSERT INTO exam VALUES ('小明', 60.5, DATE '2020-01-02',"
+                    + " TIMESTAMP '2020-01-02 08:30:00', TRUE)");
+            statement.execute("INSERT INTO exam VALUES ('小花', NULL, NULL, NULL, NULL)");
+
+            CellStyleBuilder dateStyle = CellStyleBuilder.of().dateFormat("yyyy-MM-dd");
+            Sheet sheet;
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM exam ORDER BY name")) {
+                sheet = Excels.helper()
+                        .header("姓名", "成绩", "日期", "时间", "及格")
+                        .body(dateStyle, resultSet)
+                        .getSheet().getSheet();
+            }
+
+            Row row = sheet.getRow(1);
+            assertEquals("小明", row.getCell(0).getStringCellValue());
+            assertEquals(60.5, row.getCell(1).getNumericCellValue(), 0);
+            assertEquals(java.sql.Date.valueOf("2020-01-02").getTime(), row.getCell(2).getDateCellValue().getTime());
+            assertEquals("yyyy-MM-dd", row.getCell(2).getCellStyle().getDataFormatString());
+            assertEquals(Timestamp.valueOf("2020-01-02 08:30:00").getTime(),
+                    row.getCell(3).getDateCellValue().getTime());
+            assertEquals(true, row.getCell(4).getBooleanCellValue());
+            // NULL写入空单元格
+            for (int i = 1; i < 5; i++) {
+                assertEquals(CellType.BLANK, sheet.getRow(2).getCell(i).getCellTypeEnum());
+            }
+        }
+    }
+
+    @Test
+    public void parallelSheets() throws Exception {
+        CellStyleBuilder centerStyle = CellStyleBuilder.of()
+                .alignment(HorizontalAlignment.CENTER)
+                .dateFormat("yyyy-MM-dd");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (WorkbookType type : WorkbookType.values()) {
+                try (Workbooks workbooks = Excels.createWorkbook(type)) {
+                    ParallelSheets parallel = workbooks.parallel(executor);
+                    for (int i = 0; i < 8; i++) {
+                        String region = "区域" + i;
+                        parallel.sheet(region, sheets -> {
+                            sheets.values(centerStyle, "学号", "姓名", "课程", "成绩", "日期").nextRow();
+                            for (int j = 0; j < 500; j++) {
+                                sheets.values(centerStyle, Collections.singletonList(
+                                        new Item(String.valueOf(j), region + "学生" + j, "数学", j, new Date())));
+                            }
+                        });
+                    }
+                    parallel.execute();
+
+                    File file = new File(temp.getRoot(), "parallel." + (type == WorkbookType.HSSF ? "xls" : "xlsx"));
+                    workbooks.write(file);
+                    try (Workbook workbook = WorkbookFactory.create(file)) {
+                        assertEquals(8, workbook.getNumberOfSheets());
+                        for (int i = 0; i < 8; i++) {
+                            Sheet sheet = workbook.getSheetAt(i);
+                            assertEquals("区域" + i, sheet.getSheetName());
+                            assertEquals("区域" + i + "学生499", sheet.getRow(500).getCell(1).getStringCellValue());
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelSheetsRejected() {
+        // 只接受第一个任务的线程池
+        int[] submitted = {0};
+        Executor executor = command -> {
+            if (submitted[0]++ > 0)
+                throw new RejectedExecutionException();
+            command.run();
+        };
+        List<Sheets> filled = new ArrayList<>();
+        try {
+            Excels.createWorkbook().parallel(executor)
+                    .sheet("区域0", filled::add)
+                    .sheet("区域1", filled::add)
+                    .execute();
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, filled.size());
+
+        // 失败后已填充的Sheet不再加锁
+        assertNull(filled.get(0).getSharedLock());
+    }
+
+    @Test
+    public void skipMergedRegion() {
+        Sheets sheets = Excels.createWorkbook().createSheet()
+                .mergedRegion(0, 1, 1, 2)
+                .mergedRegion(0, 1, 3, 3);
+        // 第一行：左上角的单元格不跳过
+        assertEquals(1, sheets.nextCell().getCurColIndex());
+        assertEquals(3, sheets.nextCell().getCurColIndex());
+        // 第二行：相邻的两个合并区域连续跳过
+        sheets.nextRow();
+        assertEquals(0, sheets.getCurColIndex());
+        assertEquals(4, sheets.nextCell().getCurColIndex());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void overlappedMergedRegion() {
+        Excels.createWorkbook().createSheet()
+                .mergedRegion(0, 3, 0, 0)
+                .mergedRegion(2, 2, 0, 1);
+    }
+
+    @Test
+    public void existingOverlappedMergedRegion() {
+        // 已有的Sheet中互相重叠的合并区域不报错，跳过单元格时以先添加的区域为准
+        Workbooks workbooks = Excels.createWorkbook();
+        Sheet sheet = workbooks.getWorkbook().createSheet("重叠");
+        sheet.createRow(0).createCell(0).setCellValue("a");
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(0, 0, 0, 2));
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(0, 1, 1, 3));
+        Sheets sheets = workbooks.getSheet("重叠");
+        assertEquals(1, sheets.getCurRowIndex());
+        assertEquals(0, sheets.getCurColIndex());
+        assertEquals(1, sheets.nextCell().getCurColIndex());
+    }
+
+    @Test
+    public void reuseCellStyle() {
+        CellStyleBuilder centerStyle = CellStyleBuilder.of()
+                .alignment(HorizontalAlignment.CENTER)
+                .dateFormat("yyyy-MM-dd");
+
+        ExcelHelper helper = Excels.helper().body(centerStyle, getData());
+        int numCellStyles = helper.getWorkbook().getWorkbook().getNumCellStyles();
+        for (int i = 0; i < 100; i++) {
+            helper.body(centerStyle, getData());
+        }
+        assertEquals(numCellStyles, helper.getWorkbook().getWorkbook().getNumCellStyles());
+
+        // 属性相同的建造者对应同一个样式
+        CellStyleBuilder sameStyle = CellStyleBuilder.of().dateFormat("yyyy-MM-dd")
+                .alignment(HorizontalAlignment.CENTER);
+        assertEquals(centerStyle, sameStyle);
+        assertSame(helper.getWorkbook().getCellStyle(centerStyle), helper.getWorkbook().getCellStyle(sameStyle));
+    }
+
+    @Test
+    public void beanRowWriter() {
+        Workbooks workbooks = Excels.createWorkbook();
+        CellStyleBuilder style = CellStyleBuilder.of()
+                .alignment(HorizontalAlignment.CENTER)
+                .dateFormat("yyyy-MM-dd");
+
+        // 同一个Bean类型和样式复用同一个写入计划
+        BeanRowWriter rowWriter = workbooks.getBeanRowWriter(Item.class, style);
+        assertSame(rowWriter, workbooks.getBeanRowWriter(Item.class, CellStyleBuilder.of()
+                .dateFormat("yyyy-MM-dd")
+                .alignment(HorizontalAlignment.CENTER)));
+        assertTrue(rowWriter != workbooks.getBeanRowWriter(Item.class, null));
+        assertTrue(rowWriter != workbooks.getBeanRowWriter(Item.class, style.dateFormat("yyyy/MM/dd")));
+        assertTrue(rowWriter != workbooks.getBeanRowWriter(RankedItem.class, style));
+
+        // 写入时使用创建计划时确定的样式，不再创建新样式
+        Sheets sheets = workbooks.createSheet();
+        sheets.values(style, Item.class, getData());
+        int numCellStyles = workbooks.getWorkbook().getNumCellStyles();
+        sheets.values(style, Item.class, getData());
+        assertEquals(numCellStyles, workbooks.getWorkbook().getNumCellStyles());
+        assertSame(rowWriter, workbooks.getBeanRowWriter(Item.class, style));
+
+        CellStyle cellStyle = workbooks.getCellStyle(style.dateFormat(null));
+        CellStyle dateStyle = workbooks.getCellStyle(style);
+        Row row = sheets.getSheet().getRow(getData().size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(cellStyle.getIndex(), row.getCell(i).getCellStyle().getIndex());
+        }
+        assertEquals(dateStyle.getIndex(), row.getCell(4).getCellStyle().getIndex());
+        assertEquals("yyyy-MM-dd", row.getCell(4).getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void buildCellStyle() {
+        Workbook workbook = new HSSFWorkbook();
+        CellStyleBuilder style = CellStyleBuilder.of().bold(true).dateFormat("yyyy-MM-dd");
+        short index = style.build(workbook).getIndex();
+        int numCellStyles = workbook.getNumCellStyles();
+        int numFonts = workbook.getNumberOfFonts();
+        // 超过HSSF的样式数上限也不会报错
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(index, style.build(workbook).getIndex());
+        }
+        assertEquals(numCellStyles, workbook.getNumCellStyles());
+        assertEquals(numFonts, workbook.getNumberOfFonts());
+
+        // 字体属性相同的样式共用字体
+        CellStyle other = CellStyleBuilder.of().bold(true).alignment(HorizontalAlignment.CENTER).build(workbook);
+        assertTrue(other.getIndex() != index);
+        assertEquals(numFonts, workbook.getNumberOfFonts());
+
+        // 与Workbooks共用样式，先后使用两种方式都不会重复创建
+        Workbooks workbooks = Excels.createWorkbook();
+        CellStyleBuilder italic = CellStyleBuilder.of().italic(true);
+        short italicIndex = italic.build(workbooks.getWorkbook()).getIndex();
+        assertEquals(italicIndex, workbooks.getCellStyle(italic).getIndex());
+        CellStyleBuilder centered = CellStyleBuilder.of().alignment(HorizontalAlignment.CENTER);
+        short centeredIndex = workbooks.getCellStyle(centered).getIndex();
+        assertEquals(centeredIndex, centered.build(workbooks.getWorkbook()).getIndex());
+        numCellStyles = workbooks.getWorkbook().getNumCellStyles();
+        assertEquals(centeredIndex, centered.build(workbooks.getWorkbook()).getIndex());
+        assertEquals(numCellStyles, workbooks.getWorkbook().getNumCellStyles());
+    }
+
+    @Test
+    public void autoColumnSize() {
+        Sheets sheets = Excels.createWorkbook().createSheet()
+                .values("中文字符串测试", "abcdefghijkl")
+                .style(CellStyleBuilder.of().dateFormat("yyyy-MM-dd HH:mm:ss"))
+                .value(new Date())
+                .nextRow()
+                .values("短", "", "")
+                .autoColumnSize();
+        assertEquals(14 * 256, sheets.getSheet().getColumnWidth(0));
+        assertEquals(12 * 256, sheets.getSheet().getColumnWidth(1));
+        assertEquals(19 * 256, sheets.getSheet().getColumnWidth(2));
+
+        // 先写入日期后设置样式，按最终的样式计算宽度
+        Sheets dateFirst = Excels.createWorkbook().createSheet()
+                .value(new Date())
+                .style(CellStyleBuilder.of().dateFormat("yyyy-MM-dd HH:mm:ss"))
+                .autoColumnSize();
+        assertEquals(19 * 256, dateFirst.getSheet().getColumnWidth(0));
+    }
+
+    @Test
+    public void autoColumnSizeSampled() {
+        Sheets sheets = Excels.createWorkbook().createSheet()
+                .values("表头表头表头表头表头").nextRow();
+        for (int i = 0; i < 10000; i++) {
+            sheets.values(i == 5000 ? "一个特别特别特别特别特别特别特别特别特别特别长的单元格" : "abcdefghijklmnopqrstuvwxyz");
+            // 第二列大部分是空单元格
+            if (i % 10 == 0)
+                sheets.value("abcdefghij");
+            sheets.nextRow();
+        }
+        // 只统计表头
+        sheets.autoColumnSizeSampled(0, 0, 1, 0);
+        assertEquals(20 * 256, sheets.getSheet().getColumnWidth(0));
+
+        // 抽样行取中位数，个别特别长的单元格不会撑宽整列
+        sheets.autoColumnSizeSampled(0, 0, 1, 100, 0.5);
+        assertEquals(26 * 256, sheets.getSheet().getColumnWidth(0));
+
+        // 空单元格不参与统计
+        sheets.autoColumnSizeSampled(1, 1, 1, 100, 0.5);
+        assertEquals(10 * 256, sheets.getSheet().getColumnWidth(1));
+
+        // 原来较宽的列会变窄
+        sheets.getSheet().setColumnWidth(0, 100 * 256);
+        sheets.autoColumnSizeSampled(0, 0, 1, 100, 0.5);
+        assertEquals(26 * 256, sheets.getSheet().getColumnWidth(0));
+    }
+
+    @Test
+    public void read() throws IOException {
+        CellStyleBuilder style = CellStyleBuilder.of().dateFormat("yyyy-MM-dd");
+        List<Item> data = getData();
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.HSSF, WorkbookType.XSSF}) {
+            File file = new File(temp.getRoot(), type == WorkbookType.HSSF ? "read.xls" : "read.xlsx");
+            Excels.helper(Excels.createWorkbook(type))
+                    .title(style, "成绩表")
+                    .header(style, "学号", "姓名", "课程", "成绩", "日期")
+                    .body(style, data)
+                    .write(file);
+
+            // 按表头定位列，标题行和表头行不读取
+            List<Item> items = Excels.reader(Item.class)
+                    .headers("学号", "姓名", "课程", "成绩", "日期")
+                    .readAll(file);
+            assertEquals(data.size(), items.size());
+            for (int i = 0; i < data.size(); i++) {
+                assertEquals(data.get(i).getNo(), items.get(i).getNo());
+                assertEquals(data.get(i).getName(), items.get(i).getName());
+                assertEquals(data.get(i).getScore(), items.get(i).getScore(), 0);
+                assertEquals(data.get(i).getExamTime().getTime(), items.get(i).getExamTime().getTime(), 1000);
+            }
+
+            // 按列的顺序读取，跳过标题行
+            List<Item> rows = Excels.reader(Item.class).headerRow(1).readAll(file);
+            assertEquals("0004", rows.get(3).getNo());
+        }
+    }
+
+    @Test
+    public void readPipelined() throws IOException {
+        File file = new File(temp.getRoot(), "readPipelined.xlsx");
+        try (Workbooks workbooks = Excels.createStreamingWorkbook(100)) {
+            Excels.helper(workbooks)
+                    .header("学号", "姓名", "课程", "成绩", "日期")
+                    .body(null, Item.class, IntStream.range(0, 5000)
+                            .mapToObj(i -> new Item(String.valueOf(i), "姓名" + i, "数学", i, new Date())))
+                    .write(file);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // 批很小、队列很短时也按原来的顺序交付
+            List<Item> items = Excels.reader(Item.class)
+                    .parallel(executor, 16, 2)
+                    .readAll(file);
+            assertEquals(5000, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals(String.valueOf(i), items.get(i).getNo());
+                assertEquals(i, items.get(i).getScore(), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void readXlsChartSheet() throws IOException {
+        // 工作表前面有图表，工作表中嵌入了图表
+        BOFRecord chartBof = new BOFRecord();
+        chartBof.setType(BOFRecord.TYPE_CHART);
+        BOFRecord workbookBof = new BOFRecord();
+        workbookBof.setType(BOFRecord.TYPE_WORKBOOK);
+        File file = temp.newFile("chart.xls");
+        writeXls(file, workbookBof, new ExtendedFormatRecord(), new BoundSheetRecord("图表"),
+                new BoundSheetRecord("数据"), EOFRecord.instance,
+                chartBof, EOFRecord.instance,
+                BOFRecord.createSheetBOF(), numberRecord(0, 1), chartBof, EOFRecord.instance, numberRecord(1, 2),
+                EOFRecord.instance);
+
+        for (String sheetName : new String[]{null, "数据"}) {
+            List<Object> values = new ArrayList<>();
+            assertTrue(XlsRowParser.parse(file, 0, sheetName, (rowIndex, cells) -> values.add(cells[0])));
+            assertEquals(Arrays.<Object>asList(1.0, 2.0), values);
+        }
+        assertTrue(!XlsRowParser.parse(file, 0, "图表", (rowIndex, cells) -> true));
+        assertTrue(!XlsRowParser.parse(file, 1, null, (rowIndex, cells) -> true));
+    }
+
+    private static NumberRecord numberRecord(int row, double value) {
+        NumberRecord record = new NumberRecord();
+        record.setRow(row);
+        record.setValue(value);
+        return record;
+    }
+
+    /**
+     * 把记录写入.xls文件的Workbook流
+     */
+    private static void writeXls(File file, Record... records) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (Record record : records) {
+            stream.write(record.serialize());
+        }
+        try (NPOIFSFileSystem fs = new NPOIFSFileSystem();
+             OutputStream out = new FileOutputStream(file)) {
+            fs.createDocument(new ByteArrayInputStream(stream.toByteArray()), "Workbook");
+            fs.writeFilesystem(out);
+        }
+    }
+
+    @Test
+    public void readHeadersNotFound() throws IOException {
+        File file = temp.newFile("headersNotFound.xlsx");
+        Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                .header("学号", "姓名", "课程", "成绩", "日期")
+                .body(null, getData())
+                .write(file);
+        try {
+            Excels.reader(Item.class).headers("学号", "姓名", "课程", "分数", "日期").readAll(file);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("找不到表头"));
+        }
+    }
+
+    @Test
+    public void readProjection() throws IOException {
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.HSSF, WorkbookType.XSSF}) {
+            File file = new File(temp.getRoot(),
+                    type == WorkbookType.HSSF ? "readProjection.xls" : "readProjection.xlsx");
+            Workbooks workbooks = Excels.createWorkbook(type);
+            workbooks.createSheet("第一页").values("不读取");
+            Sheets sheets = workbooks.createSheet("第二页");
+            for (int i = 0; i < 10; i++) {
+                sheets.values(String.valueOf(i), "姓名" + i, "数学", String.valueOf(i * 10)).nextRow();
+            }
+            workbooks.write(file);
+
+            // 只读取第二页的姓名和成绩列
+            List<Item> items = Excels.reader(Item.class)
+                    .sheet("第二页")
+                    .headerRow(-1)
+                    .columns(-1, 1, -1, 3)
+                    .rows(3, 8)
+                    .limit(4)
+                    .readAll(file);
+            assertEquals(4, items.size());
+            assertEquals(null, items.get(0).getNo());
+            assertEquals("姓名3", items.get(0).getName());
+            assertEquals(null, items.get(0).getCourse());
+            assertEquals(60, items.get(3).getScore(), 0);
+        }
+    }
+
+    @Test
+    public void readIndexed() throws IOException {
+        File file = new File(temp.getRoot(), "readIndexed.xlsx");
+        try (Workbooks workbooks = Excels.createStreamingWorkbook(100)) {
+            Excels.helper(workbooks)
+                    .header("学号", "姓名", "课程", "成绩", "日期")
+                    .body(null, Item.class, IntStream.range(0, 3000)
+                            .mapToObj(i -> new Item(String.valueOf(i), "姓名" + i, "数学", i, new Date())))
+                    .write(file);
+        }
+        File indexFile = XlsxRowIndex.indexFile(file);
+        indexFile.delete();
+
+        XlsxRowIndex index = XlsxRowIndex.loadOrBuild(file, 0, 100);
+        assertEquals(31, index.size());
+        assertEquals(true, indexFile.isFile());
+        // 第二次读取保存的索引
+        index = XlsxRowIndex.loadOrBuild(file, 0, 100);
+        assertEquals(31, index.size());
+
+        // 保存到指定位置，无法保存时仍然返回内存中的索引
+        File otherIndexFile = new File(temp.newFolder(), "readIndexed.idx");
+        assertEquals(31, XlsxRowIndex.loadOrBuild(file, otherIndexFile, 0, 100).size());
+        assertEquals(true, otherIndexFile.isFile());
+        File unwritable = new File(temp.getRoot(), "missing/readIndexed.idx");
+        assertEquals(31, XlsxRowIndex.loadOrBuild(file, unwritable, 0, 100).size());
+        assertEquals(false, unwritable.exists());
+        assertEquals(31, XlsxRowIndex.loadOrBuild(file, null, 0, 100).size());
+
+        for (int first : new int[]{1, 2501, 2999}) {
+            List<Item> page = Excels.reader(Item.class)
+                    .headers("学号", "姓名", "课程", "成绩", "日期")
+                    .index(index)
+                    .rows(first, first + 9)
+                    .readAll(file);
+            assertEquals(Math.min(10, 3001 - first), page.size());
+            assertEquals(String.valueOf(first - 1), page.get(0).getNo());
+            assertEquals("姓名" + (first - 1), page.get(0).getName());
+        }
+    }
+
+    @Test
+    public void open() throws IOException, InvalidFormatException {
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.HSSF, WorkbookType.XSSF}) {
+            String suffix = type == WorkbookType.HSSF ? ".xls" : ".xlsx";
+            File source = new File(temp.getRoot(), "open" + suffix);
+            File target = new File(temp.getRoot(), "openAppended" + suffix);
+            Excels.helper(Excels.createWorkbook(type))
+                    .header("学号", "姓名", "课程", "成绩", "日期")
+                    .body(null, getData())
+                    .write(source);
+            long length = source.length();
+
+            // 在已有内容之后追加一行，写入到其它文件
+            try (Workbooks workbooks = Excels.open(source.toPath())) {
+                workbooks.getSheet(0).values("0005", "小绿", "数学", "70").end().write(target);
+            }
+            assertEquals(length, source.length());
+
+            try (Workbook workbook = WorkbookFactory.create(target)) {
+                Sheet sheet = workbook.getSheetAt(0);
+                // 末尾的空行被覆盖
+                assertEquals("0004", sheet.getRow(4).getCell(0).getStringCellValue());
+                assertEquals("小绿", sheet.getRow(5).getCell(1).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void writeAsync() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            Workbooks workbooks = Excels.createWorkbook();
+            Sheets sheets = workbooks.createSheet().values("异步写入");
+            File file = new File(temp.getRoot(), "writeAsync.xls");
+            CompletableFuture<Void> future = workbooks.writeAsync(file.toPath(), executor);
+            // 写入完成前不能修改，也不能关闭
+            CellStyleBuilder style = CellStyleBuilder.of().bold(true);
+            List<Runnable> writes = Arrays.asList(
+                    sheets::nextRow,
+                    () -> sheets.value("值"),
+                    () -> sheets.value(1),
+                    () -> sheets.values("值1", "值2"),
+                    () -> sheets.style(style),
+                    sheets::sharedStrings,
+                    () -> {
+                        try {
+                            workbooks.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            for (Runnable write : writes) {
+                try {
+                    write.run();
+                    fail();
+                } catch (IllegalStateException e) {
+                    // 预期的异常
+                }
+            }
+            blocked.countDown();
+            future.get();
+
+            // 写入完成后可以继续修改，释放后不能再使用
+            sheets.nextRow().values("第二行");
+            workbooks.writeAsync(file.toPath(), executor, true).get();
+            try {
+                workbooks.createSheet();
+                fail();
+            } catch (IllegalStateException e) {
+                // 预期的异常
+            }
+            // 不能写入时不会清空已有的文件
+            long length = file.length();
+            try {
+                workbooks.write(file.toPath());
+                fail();
+            } catch (IllegalStateException e) {
+                // 预期的异常
+            }
+            assertEquals(length, file.length());
+            // 释放后再次关闭不做任何事
+            workbooks.close();
+
+            try (Workbook workbook = WorkbookFactory.create(file)) {
+                assertEquals("第二行", workbook.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void writeChannel() throws IOException {
+        // 流式工作簿只能写入一次，不参与多次写入的比较
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.HSSF, WorkbookType.XSSF}) {
+            Workbooks workbooks = Excels.createWorkbook(type);
+            workbooks.createSheet().values(null, Item.class, getData());
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            workbooks.write(expected);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long size = workbooks.write(Channels.newChannel(out));
+            assertEquals(out.size(), size);
+
+            File file = new File(temp.getRoot(), "writeChannel" + type);
+            size = workbooks.write(file.toPath());
+            assertEquals(file.length(), size);
+
+            // 先得到大小再输出
+            try (SpoolFile spool = workbooks.spool()) {
+                ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+                assertEquals(spool.size(), spool.transferTo(Channels.newChannel(transferred)));
+                assertEquals(spool.size(), transferred.size());
+                if (type == WorkbookType.HSSF)
+                    assertArrayEquals(expected.toByteArray(), transferred.toByteArray());
+            }
+            workbooks.close();
+        }
+    }
+
+    @Test
+    public void reportTemplate() throws IOException, InvalidFormatException {
+        CellStyleBuilder centerStyle = CellStyleBuilder.of()
+                .alignment(HorizontalAlignment.CENTER)
+                .dateFormat("yyyy-MM-dd");
+        CellStyleBuilder centerBoldStyle = CellStyleBuilder.of(centerStyle).bold(true);
+
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.HSSF, WorkbookType.SXSSF}) {
+            ReportTemplate template = ReportTemplate.of(type, helper -> {
+                helper.title(centerBoldStyle, "成绩表")
+                        .header(centerBoldStyle, "学号", "姓名", "课程", "成绩", "日期");
+                // 提前登记表身的样式
+                helper.getWorkbook().getCellStyle(centerStyle);
+                helper.getWorkbook().getCellStyle(centerStyle.dateFormat(null));
+            });
+
+            File file = new File(temp.getRoot(), "reportTemplate" + (type == WorkbookType.HSSF ? ".xls" : ".xlsx"));
+            for (int i = 0; i < 2; i++) {
+                ExcelHelper helper = template.helper();
+                Workbook workbook = helper.getWorkbook().getWorkbook();
+                int styleCount = workbook.getNumCellStyles();
+                helper.body(centerStyle, getData()).write(file);
+                // 样式已经登记，不会重复创建
+                assertEquals(styleCount, workbook.getNumCellStyles());
+                helper.getWorkbook().close();
+            }
+
+            try (Workbook workbook = WorkbookFactory.create(file)) {
+                Sheet sheet = workbook.getSheetAt(0);
+                assertEquals(1, sheet.getNumMergedRegions());
+                assertEquals("成绩表", sheet.getRow(0).getCell(0).getStringCellValue());
+                assertEquals("学号", sheet.getRow(1).getCell(0).getStringCellValue());
+                assertTrue(workbook.getFontAt(sheet.getRow(1).getCell(0).getCellStyle().getFontIndex()).getBold());
+                assertEquals(HorizontalAlignment.CENTER, sheet.getRow(1).getCell(0).getCellStyle().getAlignmentEnum());
+                assertEquals("0001", sheet.getRow(2).getCell(0).getStringCellValue());
+                assertEquals("yyyy-MM-dd", sheet.getRow(2).getCell(4).getCellStyle().getDataFormatString());
+            }
+        }
+    }
+
+    @Test
+    public void csv() throws IOException {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MARCH, 1, 8, 30, 0);
+        List<Item> data = Arrays.asList(
+                new Item("0001", "小明", "数学", 60, calendar.getTime()),
+                new Item("0002", "小\"花\"", "语文,英语", 59.5, null));
+
+        StringWriter out = new StringWriter();
+        try (CsvSheets csv = Excels.csv(out)) {
+            csv.header("学号", "姓名", "课程", "成绩", "日期")
+                    .body(CellStyleBuilder.of().dateFormat("yyyy-MM-dd"), data);
+        }
+        assertEquals("学号,姓名,课程,成绩,日期\r\n"
+                + "0001,小明,数学,60,2018-03-01\r\n"
+                + "0002,\"小\"\"花\"\"\",\"语文,英语\",59.5,\r\n", out.toString());
+
+        out = new StringWriter();
+        try (CsvSheets tsv = Excels.tsv(out)) {
+            tsv.values(null, Item.class, data.subList(1, 2));
+        }
+        assertEquals("0002\t\"小\"\"花\"\"\"\t语文,英语\t59.5\t\r\n", out.toString());
+
+        // 大整数不经过double转换，不丢失精度
+        PrimitiveItem item = new PrimitiveItem();
+        item.setCount(Integer.MIN_VALUE);
+        item.setTotal(Long.MAX_VALUE - 1);
+        BigNumberItem bigItem = new BigNumberItem();
+        bigItem.setId(9007199254740993L);
+        bigItem.setAmount(new BigInteger("123456789012345678901234567890"));
+        out = new StringWriter();
+        try (CsvSheets csv = Excels.csv(out)) {
+            csv.value(Long.MIN_VALUE).nextRow()
+                    .values(null, PrimitiveItem.class, Collections.singletonList(item))
+                    .values(null, BigNumberItem.class, Collections.singletonList(bigItem));
+        }
+        assertEquals("-9223372036854775808\r\n"
+                + "-2147483648,9223372036854775806,0,FALSE\r\n"
+                + "9007199254740993,123456789012345678901234567890\r\n", out.toString());
+
+        // 小数不使用科学计数法
+        out = new StringWriter();
+        try (CsvSheets csv = Excels.csv(out)) {
+            csv.values(12345678.9, 0.00012, 1e20, -2.5e-7, 0.5);
+        }
+        assertEquals("12345678.9,0.00012,100000000000000000000,-0.00000025,0.5", out.toString());
+    }
+
+    @Test
+    public void columnBlock() throws IOException {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MARCH, 1, 0, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long day = 24L * 60 * 60 * 1000;
+        long[] times = {calendar.getTimeInMillis(), calendar.getTimeInMillis() + day};
+
+        ColumnBlock block = ColumnBlock.of()
+                .dateColumn(CellStyleBuilder.of().dateFormat("yyyy-MM-dd"), times)
+                .column(new double[]{1.5, 2.5})
+                .skipColumn()
+                .column(new int[]{3, 4})
+                .column(new long[]{5L, 6L})
+                .column(new boolean[]{true, false});
+
+        Sheets sheets = Excels.createWorkbook().createSheet()
+                .values("表头").nextRow()
+                .columns(block)
+                .values("表尾");
+        Sheet sheet = sheets.getSheet();
+        assertEquals(3, sheets.getCurRowIndex());
+        assertEquals("表尾", sheet.getRow(3).getCell(0).getStringCellValue());
+        assertEquals(calendar.getTime(), sheet.getRow(1).getCell(0).getDateCellValue());
+        assertEquals("yyyy-MM-dd", sheet.getRow(2).getCell(0).getCellStyle().getDataFormatString());
+        assertEquals(2.5, sheet.getRow(2).getCell(1).getNumericCellValue(), 0);
+        assertEquals(null, sheet.getRow(2).getCell(2));
+        assertEquals(4, sheet.getRow(2).getCell(3).getNumericCellValue(), 0);
+        assertEquals(6, sheet.getRow(2).getCell(4).getNumericCellValue(), 0);
+        assertEquals(false, sheet.getRow(2).getCell(5).getBooleanCellValue());
+
+        // 与合并区域重叠时不写入
+        try {
+            sheets.mergedRegion(5, 5, 1, 2).nextRow().columns(block);
+            fail();
+        } catch (IllegalStateException e) {
+            // 预期的异常
+        }
+
+        // float按十进制表示写入
+        sheet = Excels.createWorkbook().createSheet()
+                .columns(ColumnBlock.of().column(new float[]{0.1f, 3f}))
+                .getSheet();
+        assertEquals(0.1, sheet.getRow(0).getCell(0).getNumericCellValue(), 0);
+        assertEquals(3, sheet.getRow(1).getCell(0).getNumericCellValue(), 0);
+        Sheets floatSheets = Excels.createWorkbook().createSheet();
+        Converters.writeCell(floatSheets, 0.1f);
+        assertEquals(0.1, floatSheets.getCurCell().getNumericCellValue(), 0);
+
+        // 打开的1904日期系统的工作簿
+        File file = new File(temp.getRoot(), "date1904.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             OutputStream out = new FileOutputStream(file)) {
+            workbook.getCTWorkbook().getWorkbookPr().setDate1904(true);
+            workbook.createSheet();
+            workbook.write(out);
+        }
+        try (Workbooks workbooks = Excels.open(file.toPath())) {
+            sheet = workbooks.getSheet(0)
+                    .columns(ColumnBlock.of().dateColumn(CellStyleBuilder.of().dateFormat("yyyy-MM-dd"), times))
+                    .getSheet();
+            assertEquals(calendar.getTime(), sheet.getRow(0).getCell(0).getDateCellValue());
+        }
+    }
+
+    @Test
+    public void beanHelper() {
+        BeanHelper beanHelper = BeanHelper.of(RankedItem.class);
+        assertSame(beanHelper, BeanHelper.of(RankedItem.class));
+
+        // 父类的属性排在前面
+        List<String> names = new ArrayList<>();
+        for (PropertyHelper property : beanHelper.getOrderedProperties()) {
+            names.add(property.getName());
+        }
+        assertEquals(Arrays.asList("no", "name", "course", "score", "examTime", "rank"), names);
+    }
+
+    @Test
+    public void propertyHelper() throws IOException, IntrospectionException, ReflectiveOperationException {
+        // 当前类加载器中的Bean类生成访问器
+        assertPropertyHelper(new PrimitiveItem(), true);
+
+        // 其他类加载器中的Bean类不能生成访问器，退回到反射调用
+        File dir = temp.newFolder();
+        compile(dir, "hidden.HiddenItem", "package hidden;\n"
+                + "public class HiddenItem extends " + PrimitiveItem.class.getCanonicalName() + " {\n"
+                + "    public int getCount() { return super.getCount(); }\n"
+                + "    public void setCount(int count) { super.setCount(count); }\n"
+                + "    public long getTotal() { return super.getTotal(); }\n"
+                + "    public double getPrice() { return super.getPrice(); }\n"
+                + "    public boolean isPaid() { return super.isPaid(); }\n"
+                + "}\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader())) {
+            assertPropertyHelper((PrimitiveItem) loader.loadClass("hidden.HiddenItem").newInstance(), false);
+        }
+    }
+
+    private void assertPropertyHelper(PrimitiveItem bean, boolean generated)
+            throws IntrospectionException, ReflectiveOperationException {
+        PropertyHelper count = PropertyHelper.of(new PropertyDescriptor("count", bean.getClass()));
+        PropertyHelper total = PropertyHelper.of(new PropertyDescriptor("total", bean.getClass()));
+        PropertyHelper price = PropertyHelper.of(new PropertyDescriptor("price", bean.getClass()));
+        PropertyHelper paid = PropertyHelper.of(new PropertyDescriptor("paid", bean.getClass()));
+        assertEquals(generated, isGenerated(count, "getter"));
+        assertEquals(generated, isGenerated(count, "setter"));
+        assertEquals(generated, isGenerated(count, "intGetter"));
+        assertEquals(generated, isGenerated(total, "longGetter"));
+        assertEquals(generated, isGenerated(price, "doubleGetter"));
+        assertEquals(generated, isGenerated(paid, "booleanGetter"));
+
+        count.setProperty(bean, 3);
+        total.setProperty(bean, Long.MAX_VALUE);
+        price.setProperty(bean, 0.1);
+        paid.setProperty(bean, true);
+        assertEquals(3, count.getInt(bean));
+        assertEquals(Integer.valueOf(3), count.getProperty(bean));
+        assertEquals(Long.MAX_VALUE, total.getLong(bean));
+        assertEquals(0.1, price.getDouble(bean), 0);
+        assertTrue(paid.getBoolean(bean));
+        // 没有对应基本类型读取器的属性按包装类型转换
+        assertEquals(3.0, count.getDouble(bean), 0);
+        assertEquals(3L, count.getLong(bean));
+    }
+
+    private static boolean isGenerated(PropertyHelper property, String accessor) throws ReflectiveOperationException {
+        Field field = PropertyHelper.class.getDeclaredField(accessor);
+        field.setAccessible(true);
+        return field.get(property).getClass().isSynthetic();
+    }
+
+    @Test
+    public void converters() throws IOException {
+        Converters.format(ConvertedItem.class, "amount", "#,##0.00");
+        List<ConvertedItem> data = Arrays.asList(
+                new ConvertedItem(3, null, new BigDecimal("1234.5"), LocalDate.of(2020, 1, 2), Level.HIGH),
+                new ConvertedItem(-7, 42, new BigDecimal("0.25"), null, Level.LOW));
+        File file = new File(temp.getRoot(), "converters.xlsx");
+        Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                .header("数量", "库存", "金额", "日期", "等级")
+                .body(null, ConvertedItem.class, data)
+                .write(file);
+
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("#,##0.00", sheet.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+            assertEquals("yyyy-MM-dd", sheet.getRow(1).getCell(3).getCellStyle().getDataFormatString());
+            assertEquals(CellType.BLANK, sheet.getRow(1).getCell(1).getCellTypeEnum());
+            assertEquals("HIGH", sheet.getRow(1).getCell(4).getStringCellValue());
+        } catch (InvalidFormatException e) {
+            throw new RuntimeException(e);
+        }
+
+        List<ConvertedItem> items = Excels.reader(ConvertedItem.class).readAll(file);
+        assertEquals(data.size(), items.size());
+        for (int i = 0; i < data.size(); i++) {
+            assertEquals(data.get(i).getQuantity(), items.get(i).getQuantity());
+            assertEquals(data.get(i).getStock(), items.get(i).getStock());
+            assertEquals(0, data.get(i).getAmount().compareTo(items.get(i).getAmount()));
+            assertEquals(data.get(i).getDay(), items.get(i).getDay());
+            assertEquals(data.get(i).getLevel(), items.get(i).getLevel());
+        }
+
+        StringWriter csv = new StringWriter();
+        Excels.csv(csv).values(null, ConvertedItem.class, data).close();
+        assertEquals("3,,1234.5,2020-01-02,HIGH\r\n-7,42,0.25,,LOW\r\n", csv.toString());
+
+        // 替换int的内置转换器后，写入和读取都使用注册的转换器
+        @SuppressWarnings("unchecked")
+        Converter<Integer> builtIn = (Converter<Integer>) (Converter<?>) Converters.find(Object.class,
+                PropertyHelper.of("quantity", int.class));
+        Converters.register(int.class, new Converter<Integer>() {
+            @Override
+            public Object toCell(Integer value) {
+                return "#" + value;
+            }
+
+            @Override
+            public Integer fromCell(Object cell) {
+                return Integer.valueOf(cell.toString().substring(1));
+            }
+        });
+        try {
+            File replaced = new File(temp.getRoot(), "convertersReplaced.xlsx");
+            Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                    .header("数量", "库存", "金额", "日期", "等级")
+                    .body(null, ConvertedItem.class, data)
+                    .write(replaced);
+            try (Workbook workbook = WorkbookFactory.create(replaced)) {
+                assertEquals("#3", workbook.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+            } catch (InvalidFormatException e) {
+                throw new RuntimeException(e);
+            }
+            assertEquals(-7, Excels.reader(ConvertedItem.class).readAll(replaced).get(1).getQuantity());
+
+            // 新的CSV输出同样使用之后注册的转换器
+            StringWriter replacedCsv = new StringWriter();
+            Excels.csv(replacedCsv).values(null, ConvertedItem.class, data).close();
+            assertEquals("#3,,1234.5,2020-01-02,HIGH\r\n#-7,42,0.25,,LOW\r\n", replacedCsv.toString());
+        } finally {
+            Converters.register(int.class, builtIn);
+        }
+    }
+
+    @Test
+    public void excelColumn() throws IOException, ReflectiveOperationException {
+        // 没有生成绑定时按注解的顺序反射读写，未标记的字段不作为列
+        File file = new File(temp.getRoot(), "excelColumn.xlsx");
+        Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                .autoColumnSize(false)
+                .header(null, AnnotatedItem.class)
+                .body(null, AnnotatedItem.class, Arrays.asList(new AnnotatedItem("小明", 1234.5, "备注")))
+                .write(file);
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("金额", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("姓名", sheet.getRow(0).getCell(1).getStringCellValue());
+            Cell noteCell = sheet.getRow(1).getCell(2);
+            assertTrue(noteCell == null || noteCell.getCellTypeEnum() == CellType.BLANK);
+            assertEquals("#,##0.00", sheet.getRow(1).getCell(0).getCellStyle().getDataFormatString());
+            assertEquals(20 * 256, sheet.getColumnWidth(1));
+        } catch (InvalidFormatException e) {
+            throw new RuntimeException(e);
+        }
+        AnnotatedItem item = Excels.reader(AnnotatedItem.class).readAll(file).get(0);
+        assertEquals("小明", item.getName());
+        assertEquals(1234.5, item.getAmount(), 0);
+
+        // 编译时生成绑定，读写时使用生成的绑定
+        File dir = temp.newFolder();
+        compile(dir, "gen.GenBean", "package gen;\n"
+                + "import org.ffpy.easyexcel.ExcelColumn;\n"
+                + "public class GenBean {\n"
+                + "    @ExcelColumn(order = 2) private java.math.BigDecimal price;\n"
+                + "    @ExcelColumn(order = 1) private int count;\n"
+                + "    @ExcelColumn(order = 3) private boolean paid;\n"
+                + "    public java.math.BigDecimal getPrice() { return price; }\n"
+                + "    public void setPrice(java.math.BigDecimal price) { this.price = price; }\n"
+                + "    public int getCount() { return count; }\n"
+                + "    public void setCount(int count) { this.count = count; }\n"
+                + "    public boolean isPaid() { return paid; }\n"
+                + "    public void setPaid(boolean paid) { this.paid = paid; }\n"
+                + "}\n");
+        assertTrue(new File(dir, "gen/GenBean" + RowBinding.SUFFIX + ".java").exists()
+                || new File(dir, "gen/GenBean" + RowBinding.SUFFIX + ".class").exists());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader())) {
+            Class<?> beanClass = loader.loadClass("gen.GenBean");
+            RowBinding<Object> binding = BeanHelper.of(beanClass).getBinding();
+            assertArrayEquals(new String[]{"count", "price", "paid"}, binding.properties());
+            Object bean = binding.newInstance();
+            binding.set(bean, 0, 3);
+            binding.set(bean, 1, new BigDecimal("9.5"));
+            binding.set(bean, 2, true);
+
+            File genFile = new File(temp.getRoot(), "excelColumnGenerated.xlsx");
+            Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                    .header(null, beanClass)
+                    .body(null, Collections.singletonList(bean))
+                    .write(genFile);
+            List<?> beans = Excels.reader(beanClass).readAll(genFile);
+            assertEquals(1, beans.size());
+            assertEquals(3, BeanHelper.of(beanClass).<Integer>getProperty(beans.get(0), "count").intValue());
+            assertEquals(0, new BigDecimal("9.5").compareTo(BeanHelper.of(beanClass).getProperty(beans.get(0), "price")));
+            assertEquals(true, BeanHelper.of(beanClass).getProperty(beans.get(0), "paid"));
+
+            // CSV与Excel共用列计划，同样按绑定的顺序写入
+            StringWriter out = new StringWriter();
+            try (CsvSheets csv = Excels.csv(out)) {
+                csv.values(Collections.singletonList(bean));
+            }
+            assertEquals("3,9.5,TRUE\r\n", out.toString());
+        }
+
+        // 泛型Bean生成的绑定使用擦除后的类型，使用者开启全部警告编译时也没有警告
+        File genericDir = temp.newFolder();
+        compile(genericDir, "gen.GenericBean", "package gen;\n"
+                + "import org.ffpy.easyexcel.ExcelColumn;\n"
+                + "public class GenericBean<T extends Number> {\n"
+                + "    @ExcelColumn private T value;\n"
+                + "    @ExcelColumn private java.util.List<String> tags;\n"
+                + "    public T getValue() { return value; }\n"
+                + "    public void setValue(T value) { this.value = value; }\n"
+                + "    public java.util.List<String> getTags() { return tags; }\n"
+                + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n"
+                + "}\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{genericDir.toURI().toURL()},
+                getClass().getClassLoader())) {
+            RowBinding<Object> binding = BeanHelper.of(loader.loadClass("gen.GenericBean")).getBinding();
+            Object bean = binding.newInstance();
+            binding.set(bean, 0, 7);
+            assertEquals(7, BeanHelper.of(bean.getClass()).<Integer>getProperty(bean, "value").intValue());
+        }
+    }
+
+    @Test
+    public void excelColumnConverter() throws IOException, ReflectiveOperationException {
+        // 生成的绑定直接按属性类型写入，为属性注册的转换器仍然生效
+        File dir = temp.newFolder();
+        compile(dir, "gen.CodeBean", "package gen;\n"
+                + "import org.ffpy.easyexcel.ExcelColumn;\n"
+                + "public class CodeBean {\n"
+                + "    @ExcelColumn(header = \"编码\") private String code;\n"
+                + "    @ExcelColumn(header = \"等级\") private int level;\n"
+                + "    public String getCode() { return code; }\n"
+                + "    public void setCode(String code) { this.code = code; }\n"
+                + "    public int getLevel() { return level; }\n"
+                + "    public void setLevel(int level) { this.level = level; }\n"
+                + "}\n");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader())) {
+            Class<?> beanClass = loader.loadClass("gen.CodeBean");
+            Converters.register(beanClass, "code", new Converter<String>() {
+                @Override
+                public Object toCell(String value) {
+                    return "C-" + value;
+                }
+
+                @Override
+                public String fromCell(Object cell) {
+                    return cell.toString().substring(2);
+                }
+            });
+            Converters.register(beanClass, "level", new Converter<Integer>() {
+                @Override
+                public Object toCell(Integer value) {
+                    return "L" + value;
+                }
+
+                @Override
+                public Integer fromCell(Object cell) {
+                    return Integer.valueOf(cell.toString().substring(1));
+                }
+            });
+
+            // 列的类型和注解取自生成的绑定，不通过反射读取属性
+            BeanHelper beanHelper = BeanHelper.of(beanClass);
+            RowBinding.Column[] columns = beanHelper.getBinding().columns();
+            assertEquals(String.class, columns[0].getType());
+            assertEquals(int.class, columns[1].getType());
+            assertEquals("等级", columns[1].getHeader());
+            for (PropertyHelper property : beanHelper.getOrderedProperties()) {
+                assertNull(property.getPropertyDescriptor());
+            }
+
+            Object bean = beanHelper.getBinding().newInstance();
+            beanHelper.setProperty(bean, "code", "a");
+            beanHelper.setProperty(bean, "level", 2);
+
+            File file = new File(temp.getRoot(), "excelColumnConverter.xlsx");
+            Excels.helper(Excels.createWorkbook(WorkbookType.XSSF))
+                    .header(null, beanClass)
+                    .body(null, Arrays.asList(bean, bean))
+                    .write(file);
+            try (Workbook workbook = WorkbookFactory.create(file)) {
+                Sheet sheet = workbook.getSheetAt(0);
+                assertEquals("等级", sheet.getRow(0).getCell(1).getStringCellValue());
+                for (int i = 1; i <= 2; i++) {
+                    assertEquals("C-a", sheet.getRow(i).getCell(0).getStringCellValue());
+                    assertEquals("L2", sheet.getRow(i).getCell(1).getStringCellValue());
+                }
+            } catch (InvalidFormatException e) {
+                throw new RuntimeException(e);
+            }
+            Object read = Excels.reader(beanClass).readAll(file).get(0);
+            assertEquals("a", beanHelper.getProperty(read, "code"));
+            assertEquals(2, beanHelper.<Integer>getProperty(read, "level").intValue());
+
+            StringWriter out = new StringWriter();
+            try (CsvSheets csv = Excels.csv(out)) {
+                csv.values(Arrays.asList(bean, bean));
+            }
+            assertEquals("C-a,L2\r\nC-a,L2\r\n", out.toString());
+        }
+    }
+
+    /**
+     * 编译源文件到指定目录，编译时运行{@link ExcelColumnProcessor}
+     */
+    private static void compile(File dir, String className, String source) throws IOException {
+        File file = new File(dir, className.replace('.', '/') + ".java");
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-processor", ExcelColumnProcessor.class.getName(),
+                "-encoding", "UTF-8", "-Xlint:all", "-Werror", "-cp", System.getProperty("java.class.path"), "-d", dir.getPath(), file.getPath()));
+    }
+
+    @Test
+    public void sharedStrings() throws IOException {
+        String[] courses = {"数学", "语文", "英语"};
+        for (WorkbookType type : new WorkbookType[]{WorkbookType.XSSF, WorkbookType.SXSSF}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (Workbooks workbooks = Excels.createWorkbook(type)) {
+                // 只有课程列使用共享字符串，姓名列保持原来的方式
+                Sheets sheets = workbooks.createSheet().sharedStrings(1);
+                for (int i = 0; i < 300; i++) {
+                    sheets.value("姓名" + i).nextCell().value(courses[i % 3]).nextRow();
+                }
+                workbooks.write(out);
+            }
+
+            String sheetXml = null;
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                    if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+                        byte[] buf = new byte[8192];
+                        for (int n; (n = zip.read(buf)) > 0; ) {
+                            xml.write(buf, 0, n);
+                        }
+                        sheetXml = new String(xml.toByteArray(), StandardCharsets.UTF_8);
+                    }
+                }
+            }
+            assertTrue(sheetXml.contains("<c r=\"B300\" t=\"s\">"));
+            if (type == WorkbookType.SXSSF)
+                assertTrue(sheetXml.contains("<c r=\"A300\" t=\"inlineStr\">"));
+
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(out.toByteArray()))) {
+                Sheet sheet = workbook.getSheetAt(0);
+                for (int i = 0; i < 300; i++) {
+                    assertEquals("姓名" + i, sheet.getRow(i).getCell(0).getStringCellValue());
+                    assertEquals(courses[i % 3], sheet.getRow(i).getCell(1).getStringCellValue());
+                }
+                if (type == WorkbookType.SXSSF)
+                    assertEquals(3, ((XSSFWorkbook) workbook).getSharedStringSource().getUniqueCount());
+            } catch (InvalidFormatException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     /**
      * 测试数据项
      */
@@ -140,6 +1366,9 @@ public class EasyExcelTest {
         /** 考试日期 */
         private Date examTime;
 
+        public Item() {
+        }
+
         public Item(String no, String name, String course, double score, Date examTime) {
             this.no = no;
             this.name = name;
@@ -188,4 +1417,212 @@ public class EasyExcelTest {
             this.examTime = examTime;
         }
     }
+
+    /**
+     * 标记了列注解的测试数据项
+     */
+    public static class AnnotatedItem {
+        /** 姓名 */
+        @ExcelColumn(order = 2, header = "姓名", width = 20)
+        private String name;
+        /** 金额 */
+        @ExcelColumn(order = 1, header = "金额", format = "#,##0.00")
+        private double amount;
+        /** 备注，不作为列 */
+        private String note;
+
+        public AnnotatedItem() {
+        }
+
+        public AnnotatedItem(String name, double amount, String note) {
+            this.name = name;
+            this.amount = amount;
+            this.note = note;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+
+        public String getNote() {
+            return note;
+        }
+
+        public void setNote(String note) {
+            this.note = note;
+        }
+    }
+
+    /**
+     * 等级
+     */
+    private enum Level {
+        LOW, HIGH
+    }
+
+    /**
+     * 需要转换器的测试数据项
+     */
+    public static class ConvertedItem {
+        /** 数量 */
+        private int quantity;
+        /** 库存 */
+        private Integer stock;
+        /** 金额 */
+        private BigDecimal amount;
+        /** 日期 */
+        private LocalDate day;
+        /** 等级 */
+        private Level level;
+
+        public ConvertedItem() {
+        }
+
+        public ConvertedItem(int quantity, Integer stock, BigDecimal amount, LocalDate day, Level level) {
+            this.quantity = quantity;
+            this.stock = stock;
+            this.amount = amount;
+            this.day = day;
+            this.level = level;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public Integer getStock() {
+            return stock;
+        }
+
+        public void setStock(Integer stock) {
+            this.stock = stock;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public void setDay(LocalDate day) {
+            this.day = day;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public void setLevel(Level level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * 基本类型属性的测试数据项
+     */
+    public static class PrimitiveItem {
+        private int count;
+        private long total;
+        private double price;
+        private boolean paid;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+
+        public void setPaid(boolean paid) {
+            this.paid = paid;
+        }
+    }
+
+    /**
+     * 大整数属性的测试数据项
+     */
+    public static class BigNumberItem {
+        private Long id;
+        private BigInteger amount;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public BigInteger getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigInteger amount) {
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * 带排名的测试数据项
+     */
+    private static class RankedItem extends Item {
+        /** 排名 */
+        private double rank;
+
+        public RankedItem(String no, String name, String course, double score, Date examTime, double rank) {
+            super(no, name, course, score, examTime);
+            this.rank = rank;
+        }
+
+        public double getRank() {
+            return rank;
+        }
+
+        public void setRank(double rank) {
+            this.rank = rank;
+        }
+    }
 }